@@ -0,0 +1,94 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/bench/BenchmarkCompare.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.bench;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files (-rf json) benchmark by benchmark.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar org.anonventions.globalPost.bench.BenchmarkCompare \
+ *      baseline.json current.json [threshold‑percent, default 10]
+ * </pre>
+ * Exits with status 1 if any benchmark got slower than the threshold beyond
+ * the combined error margin, so it can gate a CI job.
+ */
+public final class BenchmarkCompare {
+
+    private record Score(double value, double error, String unit, boolean lowerIsBetter) {}
+
+    private BenchmarkCompare() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkCompare <baseline.json> <current.json> [threshold-percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, Score> base = load(Path.of(args[0]));
+        Map<String, Score> curr = load(Path.of(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, Score> e : new TreeMap<>(curr).entrySet()) {
+            Score now = e.getValue(), before = base.get(e.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s%n", e.getKey(), "-", now.value(), "new");
+                continue;
+            }
+            double change = (now.value() - before.value()) / before.value() * 100;
+            double worse  = now.lowerIsBetter() ? change : -change;
+            boolean beyondNoise = Math.abs(now.value() - before.value()) > now.error() + before.error();
+            boolean regressed   = worse > threshold && beyondNoise;
+            if (regressed) regressions++;
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%% %s %s%n",
+                    e.getKey(), before.value(), now.value(), change, now.unit(), regressed ? "REGRESSION" : "");
+        }
+        base.keySet().stream().filter(k -> !curr.containsKey(k))
+                .forEach(k -> System.out.printf("%-90s %14.3f %14s %9s%n", k, base.get(k).value(), "-", "gone"));
+
+        System.out.println(regressions == 0 ? "No regressions above " + threshold + "%"
+                                            : regressions + " regression(s) above " + threshold + "%");
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    /** "Benchmark.method{param=value,...}" → primary metric. */
+    private static Map<String, Score> load(Path file) throws IOException {
+        Map<String, Score> out = new LinkedHashMap<>();
+        try (Reader in = Files.newBufferedReader(file)) {
+            JsonArray runs = JsonParser.parseReader(in).getAsJsonArray();
+            for (JsonElement el : runs) {
+                JsonObject run = el.getAsJsonObject();
+                StringBuilder key = new StringBuilder(run.get("benchmark").getAsString()
+                        .replaceFirst("^.*\\.(\\w+\\.\\w+)$", "$1"));
+                if (run.has("params")) {
+                    key.append('{');
+                    new TreeMap<>(run.getAsJsonObject("params").asMap())
+                            .forEach((k, v) -> key.append(k).append('=').append(v.getAsString()).append(','));
+                    key.setLength(key.length() - 1);
+                    key.append('}');
+                }
+                key.append(" [").append(run.get("threads").getAsInt()).append("t]");
+
+                JsonObject metric = run.getAsJsonObject("primaryMetric");
+                String unit = metric.get("scoreUnit").getAsString();
+                double error = metric.get("scoreError").isJsonPrimitive()
+                        && metric.get("scoreError").getAsJsonPrimitive().isNumber() ? metric.get("scoreError").getAsDouble() : 0;
+                out.put(key.toString(), new Score(metric.get("score").getAsDouble(), error, unit, unit.endsWith("/op")));
+            }
+        }
+        return out;
+    }
+}
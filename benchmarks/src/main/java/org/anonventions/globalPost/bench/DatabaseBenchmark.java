@@ -0,0 +1,113 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/bench/DatabaseBenchmark.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.bench;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import org.anonventions.globalPost.GlobalPost;
+import org.anonventions.globalPost.database.DatabaseManager;
+import org.anonventions.globalPost.database.ItemSerializer;
+import org.anonventions.globalPost.models.Mail;
+import org.anonventions.globalPost.models.MailPage;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of {@link DatabaseManager} against the plugin's own embedded
+ * SQLite, loaded through MockBukkit so pools, executor and schema are the real
+ * ones. The table is seeded once per trial with {@code rows} unread mails
+ * spread over rows / MAILS_PER_PLAYER recipients.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DatabaseBenchmark {
+
+    private static final String SERVER           = "server1"; // default server.name
+    private static final int    MAILS_PER_PLAYER = 100;
+    private static final int    SEED_CHUNK       = 10_000;
+    private static final int    CURSOR_SAMPLE    = 1024;
+
+    @Param({"1000000"})
+    public int rows;
+
+    private DatabaseManager   db;
+    private UUID[]            players;
+    private UUID[]            sampled;
+    private MailPage.Cursor[] secondPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MockBukkit.mock();
+        GlobalPost plugin = MockBukkit.load(GlobalPost.class);
+        db = plugin.getDatabaseManager();
+
+        players = new UUID[Math.max(1, rows / MAILS_PER_PLAYER)];
+        for (int i = 0; i < players.length; i++) players[i] = new UUID(0x676c6f62616cL, i);
+
+        byte[] items = ItemSerializer.pack(SyntheticNbt.items(3, SyntheticNbt.Complexity.ENCHANTED, 7L), ItemSerializer.Codec.LZ4);
+        List<ItemStack> placeholder = Collections.nCopies(3, null); // only the count is stored with a pre‑packed payload
+        UUID sender = new UUID(0, 0);
+
+        long started = System.nanoTime();
+        for (int done = 0; done < rows; done += SEED_CHUNK) {
+            List<Mail> chunk = new ArrayList<>(SEED_CHUNK);
+            for (int i = done; i < Math.min(rows, done + SEED_CHUNK); i++) {
+                UUID recipient = players[i % players.length];
+                chunk.add(new Mail(sender, "Seeder", recipient, "p" + (i % players.length),
+                        "server2", SERVER, placeholder, i % 7 == 0 ? "Reward #" + i : null));
+            }
+            db.saveMailBatch(chunk, items).join();
+        }
+        System.out.printf("%n[seed] %d rows in %d ms%n", rows, (System.nanoTime() - started) / 1_000_000);
+
+        sampled    = new UUID[Math.min(CURSOR_SAMPLE, players.length)];
+        secondPage = new MailPage.Cursor[sampled.length];
+        for (int i = 0; i < sampled.length; i++) {
+            sampled[i]    = players[i * (players.length / sampled.length)];
+            secondPage[i] = db.getUnreadMailHeaderPage(sampled[i], SERVER, null, 45).join().next();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    /*------------------------------------------------------------------------*/
+    @Benchmark
+    public MailPage firstPage() {
+        return db.getUnreadMailHeaderPage(randomPlayer(), SERVER, null, 45).join();
+    }
+
+    @Benchmark
+    public MailPage secondPage() {
+        int i = ThreadLocalRandom.current().nextInt(sampled.length);
+        return db.getUnreadMailHeaderPage(sampled[i], SERVER, secondPage[i], 45).join();
+    }
+
+    @Benchmark
+    public int unreadCount() {
+        return db.getMailCount(randomPlayer(), SERVER).join();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int unreadCountContended() {
+        return db.getMailCount(randomPlayer(), SERVER).join();
+    }
+
+    private UUID randomPlayer() {
+        return players[ThreadLocalRandom.current().nextInt(players.length)];
+    }
+}
@@ -0,0 +1,60 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/bench/ItemSerializerBenchmark.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.bench;
+
+import org.anonventions.globalPost.database.ItemSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Item payload codec: framing + compression (pack) and the reverse (unpack)
+ * across mail sizes, NBT complexity and codecs. The payload size of each
+ * combination is printed once per trial so ratios can be read off the log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemSerializerBenchmark {
+
+    @Param({"1", "9", "27"})
+    public int items;
+
+    @Param({"PLAIN", "ENCHANTED", "LORE", "SHULKER"})
+    public SyntheticNbt.Complexity complexity;
+
+    @Param({"NONE", "DEFLATE", "LZ4"})
+    public ItemSerializer.Codec codec;
+
+    private List<byte[]> encoded;
+    private byte[]       packed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        encoded = SyntheticNbt.items(items, complexity, 42L);
+        packed  = ItemSerializer.pack(encoded, codec);
+        int raw = encoded.stream().mapToInt(b -> b.length).sum();
+        System.out.printf("%n[payload] items=%d complexity=%s codec=%s raw=%dB stored=%dB%n",
+                items, complexity, codec, raw, packed.length);
+    }
+
+    @Benchmark
+    public byte[] pack() {
+        return ItemSerializer.pack(encoded, codec);
+    }
+
+    @Benchmark
+    public List<byte[]> unpack() {
+        return ItemSerializer.unpack(packed);
+    }
+
+    @Benchmark
+    public int countItems() {
+        return ItemSerializer.countItems(packed);
+    }
+}
@@ -0,0 +1,138 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/bench/SyntheticNbt.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Item payloads shaped like {@code ItemStack.serializeAsBytes()} output:
+ * a gzip‑compressed NBT compound per item. ItemStack serialisation needs a
+ * real server, so the codec benchmarks feed these to ItemSerializer.pack.
+ * Seeded, so every run and every build measures the same bytes.
+ */
+public final class SyntheticNbt {
+
+    /** How much NBT an item carries. */
+    public enum Complexity {
+        PLAIN,       // id + count
+        ENCHANTED,   // custom name, 6 enchantments, damage
+        LORE,        // 12 lines of JSON lore, attribute modifiers
+        SHULKER      // shulker box holding 27 enchanted items
+    }
+
+    private static final byte END = 0, BYTE = 1, SHORT = 2, INT = 3, DOUBLE = 6, STRING = 8, LIST = 9, COMPOUND = 10;
+
+    private static final String[] ENCHANTS = {
+            "minecraft:sharpness", "minecraft:unbreaking", "minecraft:mending",
+            "minecraft:looting", "minecraft:fire_aspect", "minecraft:sweeping"
+    };
+
+    private SyntheticNbt() {}
+
+    public static List<byte[]> items(int count, Complexity complexity, long seed) {
+        Random random = new Random(seed);
+        List<byte[]> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) out.add(gzip(item(complexity, random)));
+        return out;
+    }
+
+    /*------------------------------------------------------------------------*/
+    private static byte[] item(Complexity complexity, Random random) {
+        try {
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(512);
+            DataOutputStream out = new DataOutputStream(raw);
+            out.writeByte(COMPOUND);
+            out.writeUTF("");
+            out.writeByte(INT);    out.writeUTF("DataVersion"); out.writeInt(3465);
+            writeItemBody(out, complexity, random);
+            out.writeByte(END);
+            return raw.toByteArray();
+        }
+        catch (IOException ex) { throw new UncheckedIOException(ex); }
+    }
+
+    private static void writeItemBody(DataOutputStream out, Complexity complexity, Random random) throws IOException {
+        String id = switch (complexity) {
+            case PLAIN     -> "minecraft:cobblestone";
+            case ENCHANTED -> "minecraft:diamond_sword";
+            case LORE      -> "minecraft:netherite_chestplate";
+            case SHULKER   -> "minecraft:purple_shulker_box";
+        };
+        out.writeByte(STRING); out.writeUTF("id");    out.writeUTF(id);
+        out.writeByte(BYTE);   out.writeUTF("Count"); out.writeByte(complexity == Complexity.PLAIN ? 1 + random.nextInt(64) : 1);
+        if (complexity == Complexity.PLAIN) return;
+
+        out.writeByte(COMPOUND); out.writeUTF("tag");
+        switch (complexity) {
+            case ENCHANTED -> enchanted(out, random, false);
+            case LORE -> {
+                enchanted(out, random, true);
+                attributes(out, random);
+            }
+            case SHULKER -> {
+                out.writeByte(COMPOUND); out.writeUTF("BlockEntityTag");
+                out.writeByte(LIST);     out.writeUTF("Items");
+                out.writeByte(COMPOUND); out.writeInt(27);
+                for (int slot = 0; slot < 27; slot++) {
+                    out.writeByte(BYTE); out.writeUTF("Slot"); out.writeByte(slot);
+                    writeItemBody(out, Complexity.ENCHANTED, random);
+                    out.writeByte(END);
+                }
+                out.writeByte(END);
+            }
+            default -> { }
+        }
+        out.writeByte(END);
+    }
+
+    private static void enchanted(DataOutputStream out, Random random, boolean lore) throws IOException {
+        out.writeByte(INT); out.writeUTF("Damage"); out.writeInt(random.nextInt(1500));
+        out.writeByte(COMPOUND); out.writeUTF("display");
+        out.writeByte(STRING); out.writeUTF("Name");
+        out.writeUTF("{\"text\":\"Blade #" + random.nextInt(100000) + "\",\"color\":\"gold\",\"italic\":false}");
+        if (lore) {
+            out.writeByte(LIST); out.writeUTF("Lore");
+            out.writeByte(STRING); out.writeInt(12);
+            for (int i = 0; i < 12; i++)
+                out.writeUTF("{\"text\":\"Forged in season " + random.nextInt(20) + ", line " + i
+                        + " of the chronicle\",\"color\":\"gray\",\"italic\":true}");
+        }
+        out.writeByte(END);
+
+        out.writeByte(LIST); out.writeUTF("Enchantments");
+        out.writeByte(COMPOUND); out.writeInt(ENCHANTS.length);
+        for (String e : ENCHANTS) {
+            out.writeByte(STRING); out.writeUTF("id");  out.writeUTF(e);
+            out.writeByte(SHORT);  out.writeUTF("lvl"); out.writeShort(1 + random.nextInt(5));
+            out.writeByte(END);
+        }
+    }
+
+    private static void attributes(DataOutputStream out, Random random) throws IOException {
+        out.writeByte(LIST); out.writeUTF("AttributeModifiers");
+        out.writeByte(COMPOUND); out.writeInt(4);
+        for (int i = 0; i < 4; i++) {
+            out.writeByte(STRING); out.writeUTF("AttributeName"); out.writeUTF("minecraft:generic.armor");
+            out.writeByte(DOUBLE); out.writeUTF("Amount");        out.writeDouble(random.nextDouble() * 4);
+            out.writeByte(INT);    out.writeUTF("UUIDMost");      out.writeInt(random.nextInt());
+            out.writeByte(END);
+        }
+    }
+
+    private static byte[] gzip(byte[] nbt) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(nbt.length / 2 + 32);
+            try (GZIPOutputStream gz = new GZIPOutputStream(out)) { gz.write(nbt); }
+            return out.toByteArray();
+        }
+        catch (IOException ex) { throw new UncheckedIOException(ex); }
+    }
+}
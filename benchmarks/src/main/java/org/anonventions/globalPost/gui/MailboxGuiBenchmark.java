@@ -0,0 +1,63 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/gui/MailboxGuiBenchmark.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.gui;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import org.anonventions.globalPost.managers.MailboxManager;
+import org.anonventions.globalPost.models.Mail;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Main‑thread cost of rendering one full mailbox page (45 icons with lore).
+ * Lives in the gui package to reach the package‑private {@link MailboxGUI#mailIcon}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MailboxGuiBenchmark {
+
+    /** none, a short note, or a long broadcast text on every mail. */
+    @Param({"none", "short", "long"})
+    public String message;
+
+    private List<Mail> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MockBukkit.mock(); // ItemStack/ItemMeta need a server
+        String text = switch (message) {
+            case "short" -> "gg";
+            case "long"  -> "Thanks for playing in season 12! Here are your rewards for reaching the top 100.";
+            default      -> null;
+        };
+        page = new ArrayList<>(MailboxManager.PAGE_SIZE);
+        for (int i = 0; i < MailboxManager.PAGE_SIZE; i++) {
+            Mail mail = new Mail(new UUID(1, i), "Sender" + i, new UUID(2, 0), "Reader",
+                    "survival", "hub", Collections.nCopies(1 + i % 27, (ItemStack) null), text);
+            mail.setId(i + 1);
+            page.add(mail);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Benchmark
+    public void renderPage(Blackhole bh) {
+        for (Mail mail : page) bh.consume(MailboxGUI.mailIcon(mail));
+    }
+}
@@ -1,33 +1,50 @@
 package org.anonventions.globalPost;
 
 import org.anonventions.globalPost.commands.PostCommand;
+import org.anonventions.globalPost.concurrent.AsyncExecutor;
 import org.anonventions.globalPost.config.ConfigManager;
 import org.anonventions.globalPost.database.DatabaseManager;
 import org.anonventions.globalPost.listeners.PlayerListener;
 import org.anonventions.globalPost.managers.ItemBlacklistManager;
 import org.anonventions.globalPost.managers.MailboxManager;
 import org.anonventions.globalPost.messaging.PluginMessageHandler;
+import org.anonventions.globalPost.metrics.MetricsExporter;
+import org.anonventions.globalPost.metrics.MetricsRegistry;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.util.logging.Level;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 public final class GlobalPost extends JavaPlugin {
 
     private static GlobalPost instance;
     private ConfigManager configManager;
+    private AsyncExecutor asyncExecutor;
     private DatabaseManager databaseManager;
     private MailboxManager mailboxManager;
     private ItemBlacklistManager blacklistManager;
     private PluginMessageHandler messageHandler;
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private MetricsExporter metricsExporter;
 
     @Override
     public void onEnable() {
         instance = this;
+        long started = System.nanoTime();
 
         // Initialize configuration
         configManager = new ConfigManager(this);
         configManager.loadConfig();
 
+        // Initialize executor for blocking DB work
+        asyncExecutor = new AsyncExecutor(this);
+
+        // Static data only needs the config (the routing table was built with it); warm it while the database starts
+        CompletableFuture<ItemBlacklistManager> blacklist = asyncExecutor.supply(() -> new ItemBlacklistManager(this));
+
         // Initialize database
         databaseManager = new DatabaseManager(this);
         if (!databaseManager.initialize()) {
@@ -37,13 +54,16 @@ public final class GlobalPost extends JavaPlugin {
         }
 
         // Initialize managers
-        blacklistManager = new ItemBlacklistManager(this);
+        blacklistManager = warmed(blacklist, () -> new ItemBlacklistManager(this), "item blacklist");
         mailboxManager = new MailboxManager(this);
 
-        // Initialize plugin messaging
+        // Initialize cross-server messaging (plugin messages or broker)
         messageHandler = new PluginMessageHandler(this);
-        getServer().getMessenger().registerOutgoingPluginChannel(this, "globalpost:main");
-        getServer().getMessenger().registerIncomingPluginChannel(this, "globalpost:main", messageHandler);
+        messageHandler.start();
+
+        // Prometheus export (the registry itself is always live for /post stats)
+        metricsExporter = new MetricsExporter(this, metrics);
+        metricsExporter.start();
 
         // Register commands
         getCommand("post").setExecutor(new PostCommand(this));
@@ -51,15 +71,54 @@ public final class GlobalPost extends JavaPlugin {
         // Register listeners
         getServer().getPluginManager().registerEvents(new PlayerListener(this), this);
 
-        getLogger().info("GlobalPost has been enabled successfully!");
+        // Players still online across a reload get the same mailbox prefetch as a join
+        for (Player p : getServer().getOnlinePlayers()) mailboxManager.onPlayerJoin(p.getUniqueId());
+
+        // Archive collected and expired mail in the background
+        if (configManager.isSweeperEnabled()) {
+            long period = configManager.getSweepIntervalMinutes() * 60L * 20L;
+            getServer().getScheduler().runTaskTimer(this, () -> databaseManager.getSweeper().start(null), period, period);
+        }
+
+        getLogger().info("GlobalPost has been enabled successfully in "
+                + (System.nanoTime() - started) / 1_000_000 + " ms!");
+    }
+
+    /** Result of a startup warm‑up task; if it failed, {@code fallback} runs here instead. */
+    private <T> T warmed(CompletableFuture<T> task, Supplier<T> fallback, String what) {
+        try { return task.join(); }
+        catch (CompletionException | CancellationException ex) {
+            getLogger().warning("Warming " + what + " failed (" + (ex.getCause() != null ? ex.getCause() : ex) + "), loading it now");
+            return fallback.get();
+        }
     }
 
     @Override
     public void onDisable() {
+        if (metricsExporter != null) {
+            metricsExporter.close();
+        }
+
+        // Drain queued DB work before the pools go away
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdown();
+        }
+
+        // Plugins disable before the server saves its players: save those with pending grants, then clear their journal rows
+        if (mailboxManager != null && databaseManager != null) {
+            mailboxManager.shutdown();
+        }
+
+        // Flushes the write-behind queue, then closes the pools
         if (databaseManager != null) {
             databaseManager.close();
         }
 
+        // Lets the broker publisher drain, then closes the transport
+        if (messageHandler != null) {
+            messageHandler.close();
+        }
+
         // Unregister plugin messaging
         getServer().getMessenger().unregisterOutgoingPluginChannel(this);
         getServer().getMessenger().unregisterIncomingPluginChannel(this);
@@ -75,6 +134,10 @@ public final class GlobalPost extends JavaPlugin {
         return configManager;
     }
 
+    public AsyncExecutor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
     public DatabaseManager getDatabaseManager() {
         return databaseManager;
     }
@@ -90,4 +153,8 @@ public final class GlobalPost extends JavaPlugin {
     public PluginMessageHandler getMessageHandler() {
         return messageHandler;
     }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
 }
\ No newline at end of file
@@ -4,12 +4,19 @@
 package org.anonventions.globalPost.commands;
 
 import org.anonventions.globalPost.GlobalPost;
+import org.anonventions.globalPost.database.MailSweeper;
 import org.anonventions.globalPost.gui.MailboxGUI;
 import org.anonventions.globalPost.gui.SendMailGUI;
+import org.anonventions.globalPost.managers.BulkMailer;
+import org.anonventions.globalPost.managers.RecipientSelector;
+import org.anonventions.globalPost.metrics.StatsView;
 import org.bukkit.command.*;
 import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * /post command entry‑point.
@@ -38,34 +45,144 @@ public class PostCommand implements CommandExecutor, TabCompleter {
                 String dest       = plugin.getConfigManager().normalised(args[1]);
                 String recipient  = args.length > 2 ? args[2] : p.getName();
 
-                if (!plugin.getConfigManager().getAllowedDestinations().contains(dest)) {
+                if (!plugin.getConfigManager().isAllowedDestination(dest)) {
                     p.sendMessage("§cInvalid destination server: " + dest); return true;
                 }
-                new SendMailGUI(plugin, p, dest, recipient).open();
+                if (recipient.equalsIgnoreCase(p.getName())) { new SendMailGUI(plugin, p, dest, recipient).open(); return true; }
+
+                // Refuse unknown names before the player puts items in
+                plugin.getMailboxManager().getRecipientResolver().resolve(recipient).thenAccept(uuid ->
+                        plugin.getServer().getScheduler().runTask(plugin, () -> {
+                            if (uuid.isEmpty()) p.sendMessage("§cNo player named " + recipient + " has joined the network.");
+                            else if (p.isOnline()) new SendMailGUI(plugin, p, dest, recipient).open();
+                        })
+                ).exceptionally(ex -> {
+                    plugin.getAsyncExecutor().reportFailure(p, ex, "§cCould not look up " + recipient + ".");
+                    return null;
+                });
             }
 
             case "check" ->
-                    plugin.getMailboxManager().getMailCount(p.getUniqueId()).thenAccept(cnt ->
-                            p.sendMessage("§aYou have " + cnt + " unread mail(s)."));
+                    plugin.getMailboxManager().getMailCount(p.getUniqueId())
+                            .thenAccept(cnt -> p.sendMessage("§aYou have " + cnt + " unread mail(s)."))
+                            .exceptionally(ex -> {
+                                plugin.getAsyncExecutor().reportFailure(p, ex, "§cCould not check your mail.");
+                                return null;
+                            });
 
             case "reload" -> {
                 if (!p.hasPermission("globalpost.admin")) { p.sendMessage("§cYou lack globalpost.admin"); return true; }
-                plugin.getConfigManager().loadConfig();
-                plugin.getBlacklistManager().reloadBlacklist();
-                p.sendMessage("§aGlobalPost reloaded!");
+                // Parse off the server thread; readers keep the old snapshot until the swap
+                plugin.getAsyncExecutor().supply(() -> { plugin.getConfigManager().loadConfig(); return null; })
+                        .thenRun(() -> plugin.getServer().getScheduler().runTask(plugin, () -> {
+                            plugin.getBlacklistManager().reloadBlacklist();
+                            p.sendMessage("§aGlobalPost reloaded!");
+                        }))
+                        .exceptionally(ex -> {
+                            plugin.getAsyncExecutor().reportFailure(p, ex, "§cCould not reload config.yml, see console.");
+                            return null;
+                        });
             }
 
-            default -> p.sendMessage("§cUsage: /post [send|check|reload]");
+            case "broadcast" -> {
+                if (!p.hasPermission("globalpost.admin")) { p.sendMessage("§cYou lack globalpost.admin"); return true; }
+                if (args.length < 3) {
+                    p.sendMessage("§cUsage: /post broadcast <server> <all|online|perm:<node>|name,name> [message]");
+                    p.sendMessage("§7perm:<node> only selects players online here; offline players are skipped.");
+                    return true;
+                }
+                ItemStack held = p.getInventory().getItemInMainHand();
+                if (held == null || held.getType().isAir()) { p.sendMessage("§cHold the item to send in your main hand."); return true; }
+                broadcast(p, args[1], args[2], List.of(held.clone()),
+                        args.length > 3 ? String.join(" ", Arrays.copyOfRange(args, 3, args.length)) : null);
+            }
+
+            case "migrateitems" -> {
+                if (!p.hasPermission("globalpost.admin")) { p.sendMessage("§cYou lack globalpost.admin"); return true; }
+                if (!plugin.getDatabaseManager().getItemMigrator().start(p::sendMessage))
+                    p.sendMessage("§cAn item migration is already running.");
+            }
+
+            case "sweep" -> {
+                if (!p.hasPermission("globalpost.admin")) { p.sendMessage("§cYou lack globalpost.admin"); return true; }
+                MailSweeper sweeper = plugin.getDatabaseManager().getSweeper();
+                if (args.length > 1 && args[1].equalsIgnoreCase("now")) {
+                    if (sweeper.start(p::sendMessage)) p.sendMessage("§eMail sweep started...");
+                    else p.sendMessage("§cA mail sweep is already running.");
+                    return true;
+                }
+                sweepStats(p, sweeper);
+            }
+
+            case "stats" -> {
+                if (!p.hasPermission("globalpost.admin")) { p.sendMessage("§cYou lack globalpost.admin"); return true; }
+                String prefix = args.length > 1 ? args[1].toLowerCase(Locale.ROOT) : "";
+                List<String> lines = StatsView.render(plugin.getMetrics(), prefix);
+                p.sendMessage("§6[Mail] §eStats since startup" + (prefix.isEmpty() ? "" : " §7(" + prefix + "*)"));
+                if (lines.isEmpty()) p.sendMessage("§7Nothing recorded" + (prefix.isEmpty() ? " yet." : " for " + prefix + "."));
+                lines.forEach(p::sendMessage);
+            }
+
+            default -> p.sendMessage("§cUsage: /post [send|check|reload|broadcast|migrateitems|sweep|stats]");
         }
         return true;
     }
 
+    /*------------------------------------------------------------------------*/
+    /** Resolves the selector, then streams the bulk send with progress every 10%. */
+    private void broadcast(Player p, String server, String selector, List<ItemStack> template, String msg) {
+        RecipientSelector.resolve(plugin, selector).thenCompose(recipients -> {
+            if (recipients.isEmpty()) {
+                p.sendMessage("§cNo recipients matched " + selector + ".");
+                return CompletableFuture.<BulkMailer.Progress>completedFuture(null);
+            }
+            p.sendMessage("§eSending to " + recipients.size() + " player(s) on " + server + "..."
+                    + (RecipientSelector.isOnlineOnly(selector) ? " §7(online players only)" : ""));
+
+            int[] lastDecile = {0};
+            return plugin.getMailboxManager().sendBulk(p.getUniqueId(), p.getName(), recipients, server, template, msg,
+                    prog -> {
+                        int decile = prog.percent() / 10;
+                        if (decile > lastDecile[0] && prog.percent() < 100) {
+                            lastDecile[0] = decile;
+                            p.sendMessage("§7Broadcast " + prog.percent() + "% (" + prog.sent() + "/" + prog.total() + ")");
+                        }
+                    });
+        }).thenAccept(result -> {
+            if (result != null)
+                p.sendMessage("§aBroadcast finished: " + result.sent() + " sent, " + result.failed() + " failed.");
+        }).exceptionally(ex -> {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof IllegalArgumentException) p.sendMessage("§c" + cause.getMessage());
+            else plugin.getAsyncExecutor().reportFailure(p, ex, "§cBroadcast failed, check the console.");
+            return null;
+        });
+    }
+
+    private void sweepStats(Player p, MailSweeper sweeper) {
+        MailSweeper.Stats s = sweeper.getStats();
+        p.sendMessage("§6[Mail] §eSweeper" + (sweeper.isRunning() ? " §a(running)" : ""));
+        if (s.runs() == 0) { p.sendMessage("§7No sweep has run since startup. Use /post sweep now"); return; }
+        long ago = (System.currentTimeMillis() - s.lastRunAt()) / 60000;
+        p.sendMessage("§7Last run: §f" + ago + " min ago§7, took §f" + s.lastDurationMs() + " ms");
+        p.sendMessage("§7Last run archived: §f" + s.lastArchived() + "§7 collected, §f" + s.lastExpired() + "§7 expired");
+        p.sendMessage("§7Since startup: §f" + s.runs() + "§7 run(s), §f" + s.archivedTotal() + "§7 collected, §f"
+                + s.expiredTotal() + "§7 expired");
+        if (s.lastError() != null) p.sendMessage("§cLast error: " + s.lastError());
+    }
+
     /*------------------------------------------------------------------------*/
     @Override
     public List<String> onTabComplete(CommandSender s, Command c, String a, String[] args) {
-        if (args.length == 1) return List.of("send", "check", "reload");
-        if (args.length == 2 && args[0].equalsIgnoreCase("send"))
+        if (args.length == 1) return List.of("send", "check", "reload", "broadcast", "migrateitems", "sweep", "stats");
+        if (args.length == 2 && (args[0].equalsIgnoreCase("send") || args[0].equalsIgnoreCase("broadcast")))
             return plugin.getConfigManager().getAllowedDestinations();
+        if (args.length == 2 && args[0].equalsIgnoreCase("sweep"))
+            return List.of("now");
+        if (args.length == 2 && args[0].equalsIgnoreCase("stats"))
+            return List.of("db", "executor", "items", "mailbox", "messages", "notification", "send", "collects", "write");
+        if (args.length == 3 && args[0].equalsIgnoreCase("broadcast"))
+            return List.of("all", "online", "perm:");
         return Collections.emptyList();
     }
 }
@@ -0,0 +1,129 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/concurrent/AsyncExecutor.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.concurrent;
+
+import org.anonventions.globalPost.GlobalPost;
+import org.anonventions.globalPost.config.ConfigManager;
+import org.anonventions.globalPost.metrics.MetricsRegistry;
+import org.bukkit.command.CommandSender;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool that runs every blocking DB task of the plugin.
+ * – Keeps JDBC work off ForkJoinPool.commonPool, which other plugins share.
+ * – A full queue rejects instead of growing; callers surface that to the player.
+ * – Can run on virtual threads when the server is on Java 21+.
+ */
+public class AsyncExecutor implements Executor {
+
+    public static final String BUSY_MESSAGE = "§cThe mail service is busy right now, please try again in a moment.";
+
+    private final GlobalPost         plugin;
+    private final ThreadPoolExecutor pool;
+    private final LongAdder          rejected = new LongAdder();
+    private final boolean            virtual;
+
+    public AsyncExecutor(GlobalPost plugin) {
+        this.plugin = plugin;
+        ConfigManager cfg = plugin.getConfigManager();
+
+        ThreadFactory factory = cfg.useVirtualThreads() ? virtualThreadFactory() : null;
+        this.virtual = factory != null;
+        if (factory == null) factory = platformThreadFactory();
+
+        pool = new ThreadPoolExecutor(
+                cfg.getExecutorThreads(), cfg.getExecutorThreads(),
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(cfg.getExecutorQueueSize()),
+                factory,
+                (task, executor) -> {
+                    rejected.increment();
+                    throw new RejectedExecutionException("GlobalPost executor queue is full");
+                });
+        pool.allowCoreThreadTimeOut(true);
+
+        MetricsRegistry metrics = plugin.getMetrics();
+        metrics.gauge("executor_queue_depth", "Tasks waiting for a DB thread", this::getQueueDepth);
+        metrics.gauge("executor_active_threads", "DB threads running a task", this::getActiveCount);
+        metrics.counter("executor_rejected_total", "Tasks refused because the queue was full", this::getRejectedCount);
+    }
+
+    /*------------------------------------------------------------------------*/
+    @Override
+    public void execute(Runnable task) { pool.execute(task); }
+
+    /** supplyAsync on this pool; a full queue yields a failed future instead of a throw. */
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        try { return CompletableFuture.supplyAsync(task, pool); }
+        catch (RejectedExecutionException ex) { return CompletableFuture.failedFuture(ex); }
+    }
+
+    /** True if the failure (possibly wrapped) came from a full queue. */
+    public static boolean isRejection(Throwable ex) {
+        while (ex instanceof CompletionException || ex instanceof ExecutionException) {
+            if (ex.getCause() == null) break;
+            ex = ex.getCause();
+        }
+        return ex instanceof RejectedExecutionException;
+    }
+
+    /** Tells the sender why an async request failed; rejections get the "busy" message. */
+    public void reportFailure(CommandSender sender, Throwable ex, String fallback) {
+        if (isRejection(ex)) sender.sendMessage(BUSY_MESSAGE);
+        else {
+            plugin.getLogger().warning("Async task failed: " + ex);
+            sender.sendMessage(fallback);
+        }
+    }
+
+    /*------------------------------------------------------------------------*/
+    /** Stops accepting work and lets queued tasks finish for up to the configured timeout. */
+    public void shutdown() {
+        pool.shutdown();
+        try {
+            long timeout = plugin.getConfigManager().getExecutorShutdownTimeout();
+            if (!pool.awaitTermination(timeout, TimeUnit.SECONDS)) {
+                int dropped = pool.shutdownNow().size();
+                plugin.getLogger().warning("Executor did not drain in " + timeout + "s, dropped " + dropped + " task(s)");
+            }
+        }
+        catch (InterruptedException ex) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int     getQueueDepth()   { return pool.getQueue().size(); }
+    public int     getActiveCount()  { return pool.getActiveCount(); }
+    public long    getRejectedCount(){ return rejected.sum(); }
+    public boolean isVirtual()       { return virtual; }
+
+    /*------------------------------------------------------------------------*/
+    private static ThreadFactory platformThreadFactory() {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "GlobalPost-DB-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /** Thread.ofVirtual() via reflection so the jar still targets Java 17; null when unavailable. */
+    private ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> type  = Class.forName("java.lang.Thread$Builder");
+            builder = type.getMethod("name", String.class, long.class).invoke(builder, "GlobalPost-DB-V", 1L);
+            return (ThreadFactory) type.getMethod("factory").invoke(builder);
+        }
+        catch (ReflectiveOperationException ex) {
+            plugin.getLogger().warning("Virtual threads need Java 21+, falling back to platform threads");
+            return null;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/concurrent/StageTimer.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.concurrent;
+
+import org.anonventions.globalPost.metrics.MetricsRegistry;
+
+/**
+ * Per‑stage latency of a multi‑step async pipeline.
+ * – One {@link Trace} per run; {@link Trace#mark} closes the stage that just ended.
+ * – Every stage is observed into a histogram family labelled by stage, which
+ *   /post stats and the metrics export show; histograms are lock‑free, so
+ *   stages may be marked from any thread.
+ * – Stages that a run skips (e.g. an early rejection) are simply not counted.
+ */
+public class StageTimer<S extends Enum<S>> {
+
+    private final S[]                         stages;
+    private final MetricsRegistry.Histogram[] histograms;
+
+    /** @param family histogram family with a single "stage" label */
+    public StageTimer(Class<S> type, MetricsRegistry.Family<MetricsRegistry.Histogram> family) {
+        this.stages     = type.getEnumConstants();
+        this.histograms = new MetricsRegistry.Histogram[stages.length];
+        for (int i = 0; i < stages.length; i++) histograms[i] = family.labels(stages[i].name().toLowerCase());
+    }
+
+    public Trace start() { return new Trace(); }
+
+    /*------------------------------------------------------------------------*/
+    /** Timing of one run. Stages are marked in order, never concurrently. */
+    public final class Trace {
+        private final long   begin = System.nanoTime();
+        private final long[] took  = new long[stages.length];
+        private long         last  = begin;
+
+        private Trace() {}
+
+        /** Ends {@code stage}: everything since the previous mark is charged to it. */
+        public void mark(S stage) {
+            long now = System.nanoTime();
+            long d   = now - last;
+            last = now;
+            int i = stage.ordinal();
+            took[i] += d;
+            histograms[i].observeNanos(d);
+        }
+
+        public long elapsedNanos() { return System.nanoTime() - begin; }
+        public long elapsedMs()    { return elapsedNanos() / 1_000_000; }
+
+        /** e.g. "validate=0ms resolve=3ms serialize=1ms persist=52ms" */
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < stages.length; i++) {
+                if (took[i] == 0) continue;
+                if (sb.length() > 0) sb.append(' ');
+                sb.append(stages[i].name().toLowerCase()).append('=').append(took[i] / 1_000_000).append("ms");
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -16,17 +16,24 @@ import java.util.stream.Collectors;
  * Loads, saves, and sanitises config.yml.
  * – All server names are trimmed + lower‑cased once on startup so comparisons
  *   across a proxy/cluster are always case‑insensitive.
+ * – Values are served from an immutable {@link ConfigSnapshot}; a reload
+ *   parses into a fresh one and swaps it in with a single volatile write.
  */
 public class ConfigManager {
 
-    private final GlobalPost     plugin;
+    private final GlobalPost        plugin;
     private       FileConfiguration config;
-    private       File             configFile;
+    private       File              configFile;
+    private volatile ConfigSnapshot snapshot;
 
     public ConfigManager(GlobalPost plugin) { this.plugin = plugin; }
 
     /*------------------------------------------------------------------------*/
-    public void loadConfig() {
+    /**
+     * Reads config.yml and publishes a new snapshot. Any thread; concurrent
+     * reloads are serialised, and readers keep the old snapshot until the swap.
+     */
+    public synchronized void loadConfig() {
         configFile = new File(plugin.getDataFolder(), "config.yml");
         if (!configFile.exists()) plugin.saveDefaultConfig();
 
@@ -34,19 +41,93 @@ public class ConfigManager {
         setDefaults();      // add missing keys
         sanitise();         // normalise names
         saveConfig();
+
+        ConfigSnapshot loaded = new ConfigSnapshot(config);
+        loaded.getRouting().warnings().forEach(w -> plugin.getLogger().warning(w));
+        snapshot = loaded;
     }
 
+    /** The current values, all from one load. */
+    public ConfigSnapshot snapshot() { return snapshot; }
+
     private void setDefaults() {
         config.addDefault("database.type",            "sqlite");
         config.addDefault("database.sqlite.file",     "globalpost.db");
+        config.addDefault("database.sqlite.readers",  4);
         config.addDefault("database.mysql.host",      "localhost");
         config.addDefault("database.mysql.port",      3306);
         config.addDefault("database.mysql.database",  "globalpost");
         config.addDefault("database.mysql.username",  "root");
         config.addDefault("database.mysql.password",  "password");
 
+        config.addDefault("database.item_compression", "lz4");
+
+        config.addDefault("database.slow_query.threshold_ms", 250);
+        config.addDefault("database.slow_query.redact_uuids", true);
+        config.addDefault("database.slow_query.explain",      true);
+
+        config.addDefault("database.pool.min_idle",              2);
+        config.addDefault("database.pool.max_size",              10);
+        config.addDefault("database.pool.connection_timeout_ms", 5000);
+        config.addDefault("database.pool.idle_timeout_ms",       600000);
+        config.addDefault("database.pool.max_lifetime_ms",       1800000);
+        config.addDefault("database.pool.keepalive_ms",          300000);
+        config.addDefault("database.pool.validation_timeout_ms", 3000);
+        config.addDefault("database.pool.leak_detection_ms",     10000);
+        config.addDefault("database.pool.statement_cache_size",  64);
+
+        config.addDefault("executor.threads",                  4);
+        config.addDefault("executor.queue_size",               1000);
+        config.addDefault("executor.virtual_threads",          false);
+        config.addDefault("executor.shutdown_timeout_seconds", 10);
+        config.addDefault("executor.slow_send_warn_ms", 1000);
+
+        config.addDefault("write_behind.batch_size",        100);
+        config.addDefault("write_behind.flush_interval_ms", 50);
+        config.addDefault("write_behind.max_pending",       10000);
+
+        config.addDefault("bulk.chunk_size", 500);
+
+        config.addDefault("cache.unread_counts.ttl_seconds", 60);
+        config.addDefault("cache.unread_counts.max_entries", 10000);
+        config.addDefault("cache.player_names.max_entries",          5000);
+        config.addDefault("cache.player_names.ttl_seconds",          600);
+        config.addDefault("cache.player_names.negative_ttl_seconds", 60);
+        config.addDefault("cache.mailbox.enabled",        true);
+        config.addDefault("cache.mailbox.item_budget_kb", 16384);
+        config.addDefault("cache.mailbox.prefetch_items", false);
+
+        config.addDefault("notifications.coalesce_ms", 1000);
+        config.addDefault("notifications.max_queued",  1000);
+
+        config.addDefault("messaging.transport",             "plugin");
+        config.addDefault("messaging.lookup_timeout_ms",     3000);
+        config.addDefault("messaging.broker.host",           "localhost");
+        config.addDefault("messaging.broker.port",           6379);
+        config.addDefault("messaging.broker.password",       "");
+        config.addDefault("messaging.broker.channel_prefix", "globalpost");
+        config.addDefault("messaging.broker.max_pending",    10000);
+        config.addDefault("messaging.broker.embedded",       false);
+
+        config.addDefault("sweeper.enabled",                  false);
+        config.addDefault("sweeper.interval_minutes",         60);
+        config.addDefault("sweeper.mode",                     "archive");
+        config.addDefault("sweeper.collected_retention_days", 7);
+        config.addDefault("sweeper.chunk_size",               500);
+        config.addDefault("sweeper.pause_ms",                 250);
+        config.addDefault("sweeper.max_chunks_per_run",       200);
+
+        config.addDefault("metrics.export",           "none");
+        config.addDefault("metrics.file",             "metrics.prom");
+        config.addDefault("metrics.interval_seconds", 15);
+        config.addDefault("metrics.http_bind",        "127.0.0.1");
+        config.addDefault("metrics.http_port",        9464);
+
         config.addDefault("server.name", "server1");
 
+        config.addDefault("routing.relay_hops", 0);
+        config.addDefault("routing.servers",    Collections.emptyList());
+
         config.addDefault("channels.server1", Arrays.asList("server2", "server3"));
         config.addDefault("channels.server2", Collections.singletonList("server1"));
 
@@ -69,53 +150,132 @@ public class ConfigManager {
         String canonical = normalised(config.getString("server.name"));
         config.set("server.name", canonical);
 
-        final String channelsRoot = "channels";
-        if (config.isConfigurationSection(channelsRoot)) {
-            config.getConfigurationSection(channelsRoot).getKeys(false).forEach(key -> {
+        sanitiseLists("channels");        // keys and entries may be names, @groups or wildcards
+        sanitiseLists("routing.groups");
+        config.set("routing.servers", config.getStringList("routing.servers").stream().map(this::normalised).toList());
+    }
 
-                List<String> cleaned = config.getStringList(channelsRoot + "." + key).stream()
-                        .map(this::normalised)
-                        .collect(Collectors.toCollection(ArrayList::new));
+    private void sanitiseLists(String root) {
+        if (!config.isConfigurationSection(root)) return;
+        config.getConfigurationSection(root).getKeys(false).forEach(key -> {
 
-                config.set(channelsRoot + "." + normalised(key), cleaned);
+            List<String> cleaned = config.getStringList(root + "." + key).stream()
+                    .map(this::normalised)
+                    .collect(Collectors.toCollection(ArrayList::new));
 
-                if (!key.equalsIgnoreCase(normalised(key)))
-                    config.set(channelsRoot + "." + key, null); // remove original
-            });
-        }
+            config.set(root + "." + normalised(key), cleaned);
+
+            if (!key.equals(normalised(key)))
+                config.set(root + "." + key, null); // remove original
+        });
     }
 
-    public void saveConfig() {
+    public synchronized void saveConfig() {
         try { config.save(configFile); }
         catch (IOException e) { plugin.getLogger().severe("Could not save config.yml: " + e); }
     }
 
     /*------------------------------------------------------------------------*/
-    public String normalised(String raw) { return raw == null ? "" : raw.trim().toLowerCase(Locale.ROOT); }
+    public String normalised(String raw) { return ConfigSnapshot.canonical(raw); }
+
+    /** True if this server may send to {@code server} (constant time, any case). */
+    public boolean isAllowedDestination(String server) { return snapshot.allowsDestination(server); }
 
     /* Database getters ------------------------------------------------------*/
-    public String getDatabaseType()  { return config.getString("database.type", "sqlite"); }
-    public String getSQLiteFile()    { return config.getString("database.sqlite.file"); }
-    public String getMySQLHost()     { return config.getString("database.mysql.host"); }
-    public int    getMySQLPort()     { return config.getInt("database.mysql.port"); }
-    public String getMySQLDatabase() { return config.getString("database.mysql.database"); }
-    public String getMySQLUsername() { return config.getString("database.mysql.username"); }
-    public String getMySQLPassword() { return config.getString("database.mysql.password"); }
+    public String getDatabaseType()    { return snapshot.getDatabaseType(); }
+    public String getSQLiteFile()      { return snapshot.getSQLiteFile(); }
+    public String getMySQLHost()       { return snapshot.getMySQLHost(); }
+    public int    getMySQLPort()       { return snapshot.getMySQLPort(); }
+    public String getMySQLDatabase()   { return snapshot.getMySQLDatabase(); }
+    public String getMySQLUsername()   { return snapshot.getMySQLUsername(); }
+    public String getMySQLPassword()   { return snapshot.getMySQLPassword(); }
+    public String getItemCompression() { return snapshot.getItemCompression(); }
+    public int    getSQLiteReaders()   { return snapshot.getSQLiteReaders(); }
+
+    /** Statements slower than this are logged (0 = off); applies on reload. */
+    public long    getSlowQueryThresholdMs() { return snapshot.getSlowQueryThresholdMs(); }
+    public boolean isSlowQueryRedactUuids()  { return snapshot.isSlowQueryRedactUuids(); }
+    public boolean isSlowQueryExplain()      { return snapshot.isSlowQueryExplain(); }
+
+    /* Pool getters (times in ms) --------------------------------------------*/
+    public int  getPoolMinIdle()               { return snapshot.getPoolMinIdle(); }
+    public int  getPoolMaxSize()               { return snapshot.getPoolMaxSize(); }
+    public long getPoolConnectionTimeout()     { return snapshot.getPoolConnectionTimeout(); }
+    public long getPoolIdleTimeout()           { return snapshot.getPoolIdleTimeout(); }
+    public long getPoolMaxLifetime()           { return snapshot.getPoolMaxLifetime(); }
+    public long getPoolKeepaliveTime()         { return snapshot.getPoolKeepaliveTime(); }
+    public long getPoolValidationTimeout()     { return snapshot.getPoolValidationTimeout(); }
+    public long getPoolLeakDetectionThreshold(){ return snapshot.getPoolLeakDetectionThreshold(); }
+    public int  getStatementCacheSize()        { return snapshot.getStatementCacheSize(); }
+
+    /* Executor getters ------------------------------------------------------*/
+    public int     getExecutorThreads()         { return snapshot.getExecutorThreads(); }
+    public int     getExecutorQueueSize()       { return snapshot.getExecutorQueueSize(); }
+    public boolean useVirtualThreads()          { return snapshot.useVirtualThreads(); }
+    public long    getExecutorShutdownTimeout() { return snapshot.getExecutorShutdownTimeout(); }
+    public long    getSlowSendWarnMs()          { return snapshot.getSlowSendWarnMs(); }
+
+    /* Write-behind getters --------------------------------------------------*/
+    public int  getWriteBatchSize()       { return snapshot.getWriteBatchSize(); }
+    public long getWriteFlushIntervalMs() { return snapshot.getWriteFlushIntervalMs(); }
+    public int  getWriteMaxPending()      { return snapshot.getWriteMaxPending(); }
+
+    public int  getBulkChunkSize()        { return snapshot.getBulkChunkSize(); }
+
+    /* Cache getters ---------------------------------------------------------*/
+    public int getUnreadCacheTtlSeconds()       { return snapshot.getUnreadCacheTtlSeconds(); }
+    public int getUnreadCacheMaxEntries()       { return snapshot.getUnreadCacheMaxEntries(); }
+    public int getNameCacheMaxEntries()         { return snapshot.getNameCacheMaxEntries(); }
+    public int getNameCacheTtlSeconds()         { return snapshot.getNameCacheTtlSeconds(); }
+    public int getNameCacheNegativeTtlSeconds() { return snapshot.getNameCacheNegativeTtlSeconds(); }
+    /** First mailbox page of online players kept in memory; read when MailboxManager starts. */
+    public boolean isMailboxCacheEnabled()      { return snapshot.isMailboxCacheEnabled(); }
+    public int getMailboxItemBudgetKb()         { return snapshot.getMailboxItemBudgetKb(); }
+    /** Decode the first page's items on join too; applies on reload. */
+    public boolean isMailboxPrefetchItems()     { return snapshot.isMailboxPrefetchItems(); }
+
+    /* Notification getters --------------------------------------------------*/
+    public long getNotifyCoalesceMs() { return snapshot.getNotifyCoalesceMs(); }
+    public int  getNotifyMaxQueued()  { return snapshot.getNotifyMaxQueued(); }
+
+    /* Messaging getters -----------------------------------------------------*/
+    /** "plugin" (player‑carried plugin messages) or "broker" (Redis‑compatible pub/sub). */
+    public String  getMessagingTransport()  { return snapshot.getMessagingTransport(); }
+    public long    getLookupTimeoutMs()     { return snapshot.getLookupTimeoutMs(); }
+    public String  getBrokerHost()          { return snapshot.getBrokerHost(); }
+    public int     getBrokerPort()          { return snapshot.getBrokerPort(); }
+    public String  getBrokerPassword()      { return snapshot.getBrokerPassword(); }
+    public String  getBrokerChannelPrefix() { return snapshot.getBrokerChannelPrefix(); }
+    public int     getBrokerMaxPending()    { return snapshot.getBrokerMaxPending(); }
+    public boolean isBrokerEmbedded()       { return snapshot.isBrokerEmbedded(); }
+
+    /* Sweeper getters -------------------------------------------------------*/
+    public boolean isSweeperEnabled()              { return snapshot.isSweeperEnabled(); }
+    public int     getSweepIntervalMinutes()       { return snapshot.getSweepIntervalMinutes(); }
+    /** "archive" (mails_archive table) or "export" (gzip file); anything else means archive. */
+    public String  getSweepMode()                  { return snapshot.getSweepMode(); }
+    public int     getSweepCollectedRetentionDays(){ return snapshot.getSweepCollectedRetentionDays(); }
+    public int     getSweepChunkSize()             { return snapshot.getSweepChunkSize(); }
+    public long    getSweepPauseMs()               { return snapshot.getSweepPauseMs(); }
+    public int     getSweepMaxChunksPerRun()       { return snapshot.getSweepMaxChunksPerRun(); }
+
+    /* Metrics getters -------------------------------------------------------*/
+    /** "file", "http" or "none"; read once at startup. */
+    public String getMetricsExport()          { return snapshot.getMetricsExport(); }
+    public String getMetricsFile()            { return snapshot.getMetricsFile(); }
+    public int    getMetricsIntervalSeconds() { return snapshot.getMetricsIntervalSeconds(); }
+    public String getMetricsHttpBind()        { return snapshot.getMetricsHttpBind(); }
+    public int    getMetricsHttpPort()        { return snapshot.getMetricsHttpPort(); }
 
     /* General getters -------------------------------------------------------*/
     /** Always canonical form. */
-    public String getServerName() { return normalised(config.getString("server.name")); }
-
-    /** Allowed destination list (canonical, de‑duplicated). */
-    public List<String> getAllowedDestinations() {
-        return config.getStringList("channels." + getServerName()).stream()
-                .map(this::normalised)
-                .distinct()
-                .toList();
-    }
+    public String getServerName() { return snapshot.getServerName(); }
+
+    /** Allowed destination list (canonical, de‑duplicated, immutable). */
+    public List<String> getAllowedDestinations() { return snapshot.getAllowedDestinations(); }
 
-    public List<String> getBlacklistedItems() { return config.getStringList("blacklist.items"); }
-    public int  getMaxItemsPerMail()          { return config.getInt("settings.max_items_per_mail"); }
-    public int  getMaxMailsPerPlayer()        { return config.getInt("settings.max_mails_per_player"); }
-    public int  getMailExpiryDays()           { return config.getInt("settings.mail_expiry_days"); }
+    public List<String> getBlacklistedItems() { return snapshot.getBlacklistedItems(); }
+    public int  getMaxItemsPerMail()          { return snapshot.getMaxItemsPerMail(); }
+    public int  getMaxMailsPerPlayer()        { return snapshot.getMaxMailsPerPlayer(); }
+    public int  getMailExpiryDays()           { return snapshot.getMailExpiryDays(); }
 }
@@ -0,0 +1,264 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/config/ConfigSnapshot.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.*;
+
+/**
+ * Every config.yml value, parsed, clamped and canonicalised once.
+ * – Immutable: safe to read from any thread without locking.
+ * – {@link ConfigManager} swaps in a new instance on reload; code that needs
+ *   several values to agree (e.g. a send) should read them from one snapshot.
+ * – Routing is precomputed into a {@link RoutingTable}: {@link #allowsDestination(String)}
+ *   is a set lookup, no matter how many servers, groups or wildcards there are.
+ */
+public final class ConfigSnapshot {
+
+    /* Database */
+    private final String databaseType, sqliteFile, itemCompression;
+    private final String mysqlHost, mysqlDatabase, mysqlUsername, mysqlPassword;
+    private final int    mysqlPort, sqliteReaders;
+
+    /* Slow-query log */
+    private final long    slowQueryThresholdMs;
+    private final boolean slowQueryRedactUuids, slowQueryExplain;
+
+    /* Pool (ms) */
+    private final int  poolMinIdle, poolMaxSize, statementCacheSize;
+    private final long poolConnectionTimeout, poolIdleTimeout, poolMaxLifetime,
+                       poolKeepaliveTime, poolValidationTimeout, poolLeakDetectionThreshold;
+
+    /* Executor / write‑behind */
+    private final int     executorThreads, executorQueueSize;
+    private final boolean virtualThreads;
+    private final long    executorShutdownTimeout, slowSendWarnMs;
+    private final int     writeBatchSize, writeMaxPending, bulkChunkSize;
+    private final long    writeFlushIntervalMs;
+
+    /* Caches / notifications */
+    private final int  unreadCacheTtlSeconds, unreadCacheMaxEntries, nameCacheMaxEntries, nameCacheTtlSeconds, nameCacheNegativeTtlSeconds;
+    private final boolean mailboxCacheEnabled, mailboxPrefetchItems;
+    private final int  mailboxItemBudgetKb;
+    private final long notifyCoalesceMs;
+    private final int  notifyMaxQueued;
+
+    /* Messaging */
+    private final String  messagingTransport, brokerHost, brokerPassword, brokerChannelPrefix;
+    private final long    lookupTimeoutMs;
+    private final int     brokerPort, brokerMaxPending;
+    private final boolean brokerEmbedded;
+
+    /* Sweeper */
+    private final boolean sweeperEnabled;
+    private final String  sweepMode;
+    private final int     sweepIntervalMinutes, sweepCollectedRetentionDays, sweepChunkSize, sweepMaxChunksPerRun;
+    private final long    sweepPauseMs;
+
+    /* Metrics */
+    private final String metricsExport, metricsFile, metricsHttpBind;
+    private final int    metricsIntervalSeconds, metricsHttpPort;
+
+    /* General */
+    private final String       serverName;
+    private final RoutingTable routing;
+    private final List<String> allowedDestinations;
+    private final Set<String>  allowedDestinationSet;
+    private final List<String> blacklistedItems;
+    private final int          maxItemsPerMail, maxMailsPerPlayer, mailExpiryDays;
+
+    /** {@code c} must already carry defaults and canonical server names. */
+    ConfigSnapshot(ConfigurationSection c) {
+        databaseType    = c.getString("database.type", "sqlite");
+        sqliteFile      = c.getString("database.sqlite.file");
+        mysqlHost       = c.getString("database.mysql.host");
+        mysqlPort       = c.getInt("database.mysql.port");
+        mysqlDatabase   = c.getString("database.mysql.database");
+        mysqlUsername   = c.getString("database.mysql.username");
+        mysqlPassword   = c.getString("database.mysql.password");
+        itemCompression = c.getString("database.item_compression", "lz4");
+        sqliteReaders   = Math.max(1, c.getInt("database.sqlite.readers", 4));
+
+        slowQueryThresholdMs = Math.max(0, c.getLong("database.slow_query.threshold_ms", 250));
+        slowQueryRedactUuids = c.getBoolean("database.slow_query.redact_uuids", true);
+        slowQueryExplain     = c.getBoolean("database.slow_query.explain", true);
+
+        poolMinIdle                = Math.max(0, c.getInt("database.pool.min_idle", 2));
+        poolMaxSize                = Math.max(1, c.getInt("database.pool.max_size", 10));
+        poolConnectionTimeout      = c.getLong("database.pool.connection_timeout_ms", 5000);
+        poolIdleTimeout            = c.getLong("database.pool.idle_timeout_ms", 600000);
+        poolMaxLifetime            = c.getLong("database.pool.max_lifetime_ms", 1800000);
+        poolKeepaliveTime          = c.getLong("database.pool.keepalive_ms", 300000);
+        poolValidationTimeout      = c.getLong("database.pool.validation_timeout_ms", 3000);
+        poolLeakDetectionThreshold = c.getLong("database.pool.leak_detection_ms", 10000);
+        statementCacheSize         = Math.max(0, c.getInt("database.pool.statement_cache_size", 64));
+
+        executorThreads         = Math.max(1, c.getInt("executor.threads", 4));
+        executorQueueSize       = Math.max(1, c.getInt("executor.queue_size", 1000));
+        virtualThreads          = c.getBoolean("executor.virtual_threads", false);
+        executorShutdownTimeout = Math.max(0, c.getLong("executor.shutdown_timeout_seconds", 10));
+        slowSendWarnMs          = Math.max(0, c.getLong("executor.slow_send_warn_ms", 1000));
+
+        writeBatchSize       = Math.max(1, c.getInt("write_behind.batch_size", 100));
+        writeFlushIntervalMs = Math.max(1, c.getLong("write_behind.flush_interval_ms", 50));
+        writeMaxPending      = Math.max(1, c.getInt("write_behind.max_pending", 10000));
+        bulkChunkSize        = Math.max(1, c.getInt("bulk.chunk_size", 500));
+
+        unreadCacheTtlSeconds       = Math.max(1, c.getInt("cache.unread_counts.ttl_seconds", 60));
+        unreadCacheMaxEntries       = Math.max(16, c.getInt("cache.unread_counts.max_entries", 10000));
+        nameCacheMaxEntries         = Math.max(16, c.getInt("cache.player_names.max_entries", 5000));
+        nameCacheTtlSeconds         = Math.max(1, c.getInt("cache.player_names.ttl_seconds", 600));
+        nameCacheNegativeTtlSeconds = Math.max(1, c.getInt("cache.player_names.negative_ttl_seconds", 60));
+        mailboxCacheEnabled         = c.getBoolean("cache.mailbox.enabled", true);
+        mailboxItemBudgetKb         = Math.max(0, c.getInt("cache.mailbox.item_budget_kb", 16384));
+        mailboxPrefetchItems        = c.getBoolean("cache.mailbox.prefetch_items", false);
+
+        notifyCoalesceMs = Math.max(0, c.getLong("notifications.coalesce_ms", 1000));
+        notifyMaxQueued  = Math.max(1, c.getInt("notifications.max_queued", 1000));
+
+        messagingTransport  = canonical(c.getString("messaging.transport", "plugin"));
+        lookupTimeoutMs     = Math.max(100, c.getLong("messaging.lookup_timeout_ms", 3000));
+        brokerHost          = c.getString("messaging.broker.host", "localhost");
+        brokerPort          = c.getInt("messaging.broker.port", 6379);
+        brokerPassword      = c.getString("messaging.broker.password", "");
+        brokerChannelPrefix = c.getString("messaging.broker.channel_prefix", "globalpost");
+        brokerMaxPending    = Math.max(1, c.getInt("messaging.broker.max_pending", 10000));
+        brokerEmbedded      = c.getBoolean("messaging.broker.embedded", false);
+
+        sweeperEnabled              = c.getBoolean("sweeper.enabled", false);
+        sweepIntervalMinutes        = Math.max(1, c.getInt("sweeper.interval_minutes", 60));
+        sweepMode                   = canonical(c.getString("sweeper.mode", "archive"));
+        sweepCollectedRetentionDays = c.getInt("sweeper.collected_retention_days", 7);
+        sweepChunkSize              = Math.max(1, c.getInt("sweeper.chunk_size", 500));
+        sweepPauseMs                = Math.max(0, c.getLong("sweeper.pause_ms", 250));
+        sweepMaxChunksPerRun        = Math.max(1, c.getInt("sweeper.max_chunks_per_run", 200));
+
+        metricsExport          = canonical(c.getString("metrics.export", "none"));
+        metricsFile            = c.getString("metrics.file", "metrics.prom");
+        metricsIntervalSeconds = Math.max(1, c.getInt("metrics.interval_seconds", 15));
+        metricsHttpBind        = c.getString("metrics.http_bind", "127.0.0.1");
+        metricsHttpPort        = c.getInt("metrics.http_port", 9464);
+
+        serverName = canonical(c.getString("server.name"));
+        routing = RoutingTable.build(serverName,
+                lists(c.getConfigurationSection("channels")),
+                lists(c.getConfigurationSection("routing.groups")),
+                c.getStringList("routing.servers").stream().map(ConfigSnapshot::canonical).toList(),
+                c.getInt("routing.relay_hops", 0));
+        allowedDestinations   = routing.destinationsFrom(serverName);
+        allowedDestinationSet = Set.copyOf(allowedDestinations);
+
+        blacklistedItems  = List.copyOf(c.getStringList("blacklist.items"));
+        maxItemsPerMail   = c.getInt("settings.max_items_per_mail");
+        maxMailsPerPlayer = c.getInt("settings.max_mails_per_player");
+        mailExpiryDays    = c.getInt("settings.mail_expiry_days");
+    }
+
+    static String canonical(String raw) { return raw == null ? "" : raw.trim().toLowerCase(Locale.ROOT); }
+
+    /** key → canonical string list for every key of {@code section}; empty if absent. */
+    private static Map<String, List<String>> lists(ConfigurationSection section) {
+        if (section == null) return Map.of();
+        Map<String, List<String>> out = new LinkedHashMap<>();
+        for (String key : section.getKeys(false))
+            out.put(canonical(key), section.getStringList(key).stream().map(ConfigSnapshot::canonical).toList());
+        return out;
+    }
+
+    /*------------------------------------------------------------------------*/
+    /** True if this server may send to {@code server}; any case or padding is accepted. */
+    public boolean allowsDestination(String server) {
+        return allowedDestinationSet.contains(server) || allowedDestinationSet.contains(canonical(server));
+    }
+
+    /* Database getters ------------------------------------------------------*/
+    public String getDatabaseType()    { return databaseType; }
+    public String getSQLiteFile()      { return sqliteFile; }
+    public String getMySQLHost()       { return mysqlHost; }
+    public int    getMySQLPort()       { return mysqlPort; }
+    public String getMySQLDatabase()   { return mysqlDatabase; }
+    public String getMySQLUsername()   { return mysqlUsername; }
+    public String getMySQLPassword()   { return mysqlPassword; }
+    public String getItemCompression() { return itemCompression; }
+    public int    getSQLiteReaders()   { return sqliteReaders; }
+
+    public long    getSlowQueryThresholdMs() { return slowQueryThresholdMs; }
+    public boolean isSlowQueryRedactUuids()  { return slowQueryRedactUuids; }
+    public boolean isSlowQueryExplain()      { return slowQueryExplain; }
+
+    /* Pool getters (times in ms) --------------------------------------------*/
+    public int  getPoolMinIdle()               { return poolMinIdle; }
+    public int  getPoolMaxSize()               { return poolMaxSize; }
+    public long getPoolConnectionTimeout()     { return poolConnectionTimeout; }
+    public long getPoolIdleTimeout()           { return poolIdleTimeout; }
+    public long getPoolMaxLifetime()           { return poolMaxLifetime; }
+    public long getPoolKeepaliveTime()         { return poolKeepaliveTime; }
+    public long getPoolValidationTimeout()     { return poolValidationTimeout; }
+    public long getPoolLeakDetectionThreshold(){ return poolLeakDetectionThreshold; }
+    public int  getStatementCacheSize()        { return statementCacheSize; }
+
+    /* Executor getters ------------------------------------------------------*/
+    public int     getExecutorThreads()         { return executorThreads; }
+    public int     getExecutorQueueSize()       { return executorQueueSize; }
+    public boolean useVirtualThreads()          { return virtualThreads; }
+    public long    getExecutorShutdownTimeout() { return executorShutdownTimeout; }
+    public long    getSlowSendWarnMs()          { return slowSendWarnMs; }
+
+    /* Write-behind getters --------------------------------------------------*/
+    public int  getWriteBatchSize()       { return writeBatchSize; }
+    public long getWriteFlushIntervalMs() { return writeFlushIntervalMs; }
+    public int  getWriteMaxPending()      { return writeMaxPending; }
+
+    public int  getBulkChunkSize()        { return bulkChunkSize; }
+
+    /* Cache getters ---------------------------------------------------------*/
+    public int getUnreadCacheTtlSeconds()       { return unreadCacheTtlSeconds; }
+    public int getUnreadCacheMaxEntries()       { return unreadCacheMaxEntries; }
+    public int getNameCacheMaxEntries()         { return nameCacheMaxEntries; }
+    public int getNameCacheTtlSeconds()         { return nameCacheTtlSeconds; }
+    public int getNameCacheNegativeTtlSeconds() { return nameCacheNegativeTtlSeconds; }
+    public boolean isMailboxCacheEnabled()      { return mailboxCacheEnabled; }
+    public int getMailboxItemBudgetKb()         { return mailboxItemBudgetKb; }
+    public boolean isMailboxPrefetchItems()     { return mailboxPrefetchItems; }
+
+    /* Notification getters --------------------------------------------------*/
+    public long getNotifyCoalesceMs() { return notifyCoalesceMs; }
+    public int  getNotifyMaxQueued()  { return notifyMaxQueued; }
+
+    /* Messaging getters -----------------------------------------------------*/
+    public String  getMessagingTransport()  { return messagingTransport; }
+    public long    getLookupTimeoutMs()     { return lookupTimeoutMs; }
+    public String  getBrokerHost()          { return brokerHost; }
+    public int     getBrokerPort()          { return brokerPort; }
+    public String  getBrokerPassword()      { return brokerPassword; }
+    public String  getBrokerChannelPrefix() { return brokerChannelPrefix; }
+    public int     getBrokerMaxPending()    { return brokerMaxPending; }
+    public boolean isBrokerEmbedded()       { return brokerEmbedded; }
+
+    /* Sweeper getters -------------------------------------------------------*/
+    public boolean isSweeperEnabled()               { return sweeperEnabled; }
+    public int     getSweepIntervalMinutes()        { return sweepIntervalMinutes; }
+    public String  getSweepMode()                   { return sweepMode; }
+    public int     getSweepCollectedRetentionDays() { return sweepCollectedRetentionDays; }
+    public int     getSweepChunkSize()              { return sweepChunkSize; }
+    public long    getSweepPauseMs()                { return sweepPauseMs; }
+    public int     getSweepMaxChunksPerRun()        { return sweepMaxChunksPerRun; }
+
+    /* Metrics getters -------------------------------------------------------*/
+    public String getMetricsExport()          { return metricsExport; }
+    public String getMetricsFile()            { return metricsFile; }
+    public int    getMetricsIntervalSeconds() { return metricsIntervalSeconds; }
+    public String getMetricsHttpBind()        { return metricsHttpBind; }
+    public int    getMetricsHttpPort()        { return metricsHttpPort; }
+
+    /* General getters -------------------------------------------------------*/
+    public String       getServerName()          { return serverName; }
+    public RoutingTable getRouting()             { return routing; }
+    public List<String> getAllowedDestinations() { return allowedDestinations; }
+    public List<String> getBlacklistedItems()    { return blacklistedItems; }
+    public int          getMaxItemsPerMail()     { return maxItemsPerMail; }
+    public int          getMaxMailsPerPlayer()   { return maxMailsPerPlayer; }
+    public int          getMailExpiryDays()      { return mailExpiryDays; }
+}
@@ -0,0 +1,177 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/config/RoutingTable.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.config;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Which server may send mail to which, resolved once per config load.
+ * <pre>
+ * channels:                      routing:
+ *   hub:       ["@survival"]       relay_hops: 1
+ *   "smp-*":   [hub]               servers: [smp-1, smp-2, smp-3]
+ *   "@survival": ["smp-*"]         groups:
+ *                                    survival: [smp-1, smp-2, smp-3]
+ * </pre>
+ * – Keys and list entries are a server name, "@group", or a wildcard
+ *   (* and ?) matched against every server named anywhere in the config.
+ * – With relay_hops = n, a server may also send to anything reachable through
+ *   up to n intermediate servers. Mail still goes straight to the destination
+ *   mailbox; hops only widen who may send where.
+ * – The result is a reachability matrix of one BitSet row per server, so
+ *   {@link #canSend} is two map lookups and a bit test.
+ */
+public final class RoutingTable {
+
+    private final String[]             names;
+    private final Map<String, Integer> index;
+    private final BitSet[]             reach;
+    private final List<String>         warnings;
+
+    private RoutingTable(String[] names, Map<String, Integer> index, BitSet[] reach, List<String> warnings) {
+        this.names    = names;
+        this.index    = index;
+        this.reach    = reach;
+        this.warnings = warnings;
+    }
+
+    /**
+     * All names must already be canonical.
+     *
+     * @param channels  source term → destination terms
+     * @param groups    group name (without '@') → member terms
+     * @param servers   extra server names for wildcards to match
+     * @param relayHops intermediate servers allowed (0 = direct channels only)
+     */
+    public static RoutingTable build(String self, Map<String, List<String>> channels,
+                                     Map<String, List<String>> groups, Collection<String> servers, int relayHops) {
+        List<String> warnings = new ArrayList<>();
+
+        // Universe: every concrete server name that appears anywhere
+        Set<String> universe = new LinkedHashSet<>();
+        universe.add(self);
+        servers.forEach(s -> addConcrete(universe, s));
+        channels.forEach((from, to) -> { addConcrete(universe, from); to.forEach(t -> addConcrete(universe, t)); });
+        groups.values().forEach(members -> members.forEach(m -> addConcrete(universe, m)));
+
+        String[] names = universe.toArray(new String[0]);
+        Map<String, Integer> index = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) index.put(names[i], i);
+
+        Expander expander = new Expander(names, index, groups, warnings);
+        BitSet[] direct = new BitSet[names.length];
+        for (int i = 0; i < names.length; i++) direct[i] = new BitSet(names.length);
+
+        channels.forEach((fromTerm, toTerms) -> {
+            BitSet from = expander.expand(fromTerm);
+            BitSet to   = new BitSet(names.length);
+            toTerms.forEach(t -> to.or(expander.expand(t)));
+            from.stream().forEach(i -> direct[i].or(to));
+        });
+
+        return new RoutingTable(names, Map.copyOf(index), closure(direct, Math.max(0, relayHops)), List.copyOf(warnings));
+    }
+
+    /** Breadth‑first widening per row; a relay path back to the source doesn't make it its own destination. */
+    private static BitSet[] closure(BitSet[] direct, int hops) {
+        BitSet[] reach = new BitSet[direct.length];
+        for (int i = 0; i < direct.length; i++) {
+            BitSet row      = (BitSet) direct[i].clone();
+            BitSet frontier = direct[i];
+            for (int h = 0; h < hops && !frontier.isEmpty(); h++) {
+                BitSet next = new BitSet(direct.length);
+                frontier.stream().forEach(j -> next.or(direct[j]));
+                next.andNot(row);
+                row.or(next);
+                frontier = next;
+            }
+            if (!direct[i].get(i)) row.clear(i);
+            reach[i] = row;
+        }
+        return reach;
+    }
+
+    private static boolean isConcrete(String term) {
+        return !term.isEmpty() && !term.startsWith("@") && term.indexOf('*') < 0 && term.indexOf('?') < 0;
+    }
+
+    private static void addConcrete(Set<String> universe, String term) {
+        if (isConcrete(term)) universe.add(term);
+    }
+
+    /*------------------------------------------------------------------------*/
+    /** Turns one term into the set of server indexes it names. */
+    private static final class Expander {
+        private final String[]                  names;
+        private final Map<String, Integer>      index;
+        private final Map<String, List<String>> groups;
+        private final List<String>              warnings;
+        private final Map<String, BitSet>       groupCache = new HashMap<>();
+        private final Set<String>               expanding  = new HashSet<>();
+
+        Expander(String[] names, Map<String, Integer> index, Map<String, List<String>> groups, List<String> warnings) {
+            this.names = names; this.index = index; this.groups = groups; this.warnings = warnings;
+        }
+
+        BitSet expand(String term) {
+            BitSet out = new BitSet(names.length);
+            if (term.startsWith("@")) {
+                String group = term.substring(1);
+                BitSet members = groupCache.get(group);
+                if (members == null) {
+                    if (!groups.containsKey(group)) { warnings.add("Unknown routing group " + term); return out; }
+                    if (!expanding.add(group))      { warnings.add("Routing group " + term + " contains itself"); return out; }
+                    members = new BitSet(names.length);
+                    for (String m : groups.get(group)) members.or(expand(m));
+                    expanding.remove(group);
+                    groupCache.put(group, members);
+                }
+                out.or(members);
+            }
+            else if (isConcrete(term)) {
+                Integer i = index.get(term);
+                if (i != null) out.set(i);
+            }
+            else if (!term.isEmpty()) {
+                Pattern glob = glob(term);
+                for (int i = 0; i < names.length; i++) if (glob.matcher(names[i]).matches()) out.set(i);
+                if (out.isEmpty()) warnings.add("Routing pattern " + term + " matches no known server");
+            }
+            return out;
+        }
+
+        private static Pattern glob(String term) {
+            StringBuilder re = new StringBuilder();
+            for (String part : term.split("(?=[*?])|(?<=[*?])")) {
+                if (part.equals("*"))      re.append(".*");
+                else if (part.equals("?")) re.append('.');
+                else                       re.append(Pattern.quote(part));
+            }
+            return Pattern.compile(re.toString());
+        }
+    }
+
+    /*------------------------------------------------------------------------*/
+    /** Constant time; false for servers the config never mentions. */
+    public boolean canSend(String from, String to) {
+        Integer f = index.get(from), t = index.get(to);
+        return f != null && t != null && reach[f].get(t);
+    }
+
+    /** Everything {@code from} may send to, in config order. */
+    public List<String> destinationsFrom(String from) {
+        Integer f = index.get(from);
+        if (f == null) return List.of();
+        List<String> out = new ArrayList<>(reach[f].cardinality());
+        reach[f].stream().forEach(i -> out.add(names[i]));
+        return List.copyOf(out);
+    }
+
+    /** Every server named in the config (including this one). */
+    public List<String> servers() { return List.of(names); }
+
+    /** Problems found while resolving (unknown groups, empty patterns); logged on load. */
+    public List<String> warnings() { return warnings; }
+}
@@ -3,177 +3,511 @@
  *───────────────────────────────────────────────────────────────────────────*/
 package org.anonventions.globalPost.database;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import org.anonventions.globalPost.GlobalPost;
+import org.anonventions.globalPost.config.ConfigManager;
+import org.anonventions.globalPost.metrics.MetricsRegistry;
 import org.anonventions.globalPost.models.Mail;
+import org.anonventions.globalPost.models.MailItems;
+import org.anonventions.globalPost.models.MailPage;
+import org.anonventions.globalPost.models.Recipient;
 
 import java.io.File;
 import java.sql.*;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 /**
  * Handles all DB I/O (SQLite or MySQL). <br>
- * WHERE clauses use LOWER() for destination_server so canonical names work
- * even on legacy rows.
+ * Lookups filter on destination_key, the canonical destination name stored at
+ * insert time (legacy rows are back‑filled by SchemaMigrator), so they hit
+ * idx_mails_mailbox instead of scanning through LOWER(). <br>
+ * Items are written to item_data in the binary ItemSerializer format; rows
+ * that still carry Base64 in items are read transparently. <br>
+ * Connections come from HikariCP pools: MySQL shares one pool for reads and
+ * writes, SQLite runs in WAL mode with a single writer plus read‑only readers.
+ * Every query runs on the plugin's AsyncExecutor, never the common pool;
+ * inserts go through the MailWriteQueue write‑behind buffer. Each query is
+ * timed per name into db_query_seconds (see /post stats). <br>
+ * Statements are {@link Sql} constants run on a {@link Session}. They stay
+ * prepared per connection (pool.statement_cache_size): in the driver on MySQL,
+ * in a {@link StatementCache} on SQLite. IN lists are padded to a few fixed lengths so they stay cacheable.
  */
 public class DatabaseManager {
 
-    private final GlobalPost plugin;
-    private       Connection connection;
+    private final GlobalPost       plugin;
+    private       Dialect          dialect;
+    private       HikariDataSource writer;   // every INSERT/UPDATE (and all reads on MySQL)
+    private       HikariDataSource readers;  // read‑only pool on SQLite, same as writer on MySQL
+    private final LegacyItemMigrator itemMigrator;
+    private final MailSweeper      sweeper;
+    private       MailWriteQueue   writeQueue;
+    private       SlowQueryLog     slowLog;
+    private       StatementCache   statements; // SQLite only; MySQL's driver caches its own
+    private       Sql<Integer>     upsertName;   // dialect‑specific, built in initialize()
 
-    public DatabaseManager(GlobalPost plugin) { this.plugin = plugin; }
+    private final MetricsRegistry.Family<MetricsRegistry.Histogram> queryTime;
+    private final MetricsRegistry.Family<MetricsRegistry.Counter>   queryErrors;
+    private final MetricsRegistry.Histogram                         queueWait;
+
+    public DatabaseManager(GlobalPost plugin) {
+        this.plugin       = plugin;
+        this.itemMigrator = new LegacyItemMigrator(plugin, this);
+        this.sweeper      = new MailSweeper(plugin, this);
+
+        MetricsRegistry metrics = plugin.getMetrics();
+        queryTime   = metrics.histogram("db_query_seconds", "Time spent running each query, connection checkout included",
+                                        MetricsRegistry.LATENCY_BUCKETS, "query");
+        queryErrors = metrics.counter("db_query_errors_total", "Queries that failed with an SQL error", "query");
+        queueWait   = metrics.histogram("db_queue_wait_seconds", "Time a query waited for a free executor thread",
+                                        MetricsRegistry.LATENCY_BUCKETS).get();
+        ItemSerializer.instrument(metrics);
+    }
 
     /*------------------------------------------------------------------------*/
     public boolean initialize() {
         try {
-            if ("mysql".equalsIgnoreCase(plugin.getConfigManager().getDatabaseType()))
-                initializeMySQL();
+            dialect = Dialect.fromConfig(plugin.getConfigManager().getDatabaseType());
+            if (dialect == Dialect.MYSQL) initializeMySQL();
             else initializeSQLite();
+            slowLog = new SlowQueryLog(plugin, dialect);
+            upsertName = Sql.update("INSERT INTO player_names (uuid, name, name_key, last_server, last_seen) " +
+                                    "VALUES (?,?,?,?,CURRENT_TIMESTAMP)" +
+                                    dialect.upsertSuffix("uuid", "name", "name_key", "last_server", "last_seen"));
 
             createTables();
+            recoverInterruptedCollects();
+            writeQueue = new MailWriteQueue(plugin, this);
             return true;
         }
-        catch (SQLException ex) {
+        catch (SQLException | RuntimeException ex) {
             plugin.getLogger().severe("DB init failed: " + ex.getMessage());
+            close();
             return false;
         }
     }
 
     private void initializeSQLite() throws SQLException {
+        ConfigManager cfg = plugin.getConfigManager();
         File data = plugin.getDataFolder();
         if (!data.exists()) data.mkdirs();
-        String url = "jdbc:sqlite:" + data + "/" + plugin.getConfigManager().getSQLiteFile();
-        connection = DriverManager.getConnection(url);
+        String url = "jdbc:sqlite:" + data + "/" + cfg.getSQLiteFile();
+
+        // SQLite allows one writer at a time, so the write pool is pinned to a single connection
+        HikariConfig w = poolConfig("GlobalPost-SQLite-Writer", url);
+        w.setMinimumIdle(1);
+        w.setMaximumPoolSize(1);
+        w.setConnectionInitSql("PRAGMA busy_timeout = " + cfg.getPoolConnectionTimeout());
+        writer = new HikariDataSource(w);
+
+        // WAL is persisted in the file itself; it must be on before readers attach
+        try (Connection c = writer.getConnection(); Statement st = c.createStatement()) {
+            st.execute("PRAGMA journal_mode = WAL");
+            st.execute("PRAGMA synchronous = NORMAL");
+        }
+
+        HikariConfig r = poolConfig("GlobalPost-SQLite-Reader", url);
+        r.setMinimumIdle(Math.min(cfg.getPoolMinIdle(), cfg.getSQLiteReaders()));
+        r.setMaximumPoolSize(cfg.getSQLiteReaders());
+        r.addDataSourceProperty("open_mode", "1"); // SQLITE_OPEN_READONLY
+        r.setConnectionInitSql("PRAGMA busy_timeout = " + cfg.getPoolConnectionTimeout());
+        readers = new HikariDataSource(r);
+
+        if (cfg.getStatementCacheSize() > 0) statements = new StatementCache(cfg.getStatementCacheSize(), plugin.getMetrics());
+    }
+
+    private void initializeMySQL() {
+        ConfigManager cfg = plugin.getConfigManager();
+        String h = cfg.getMySQLHost();
+        int    p = cfg.getMySQLPort();
+        String d = cfg.getMySQLDatabase();
+
+        String url = "jdbc:mysql://" + h + ":" + p + "/" + d + "?useSSL=false";
+        HikariConfig c = poolConfig("GlobalPost-MySQL", url);
+        c.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        c.setUsername(cfg.getMySQLUsername());
+        c.setPassword(cfg.getMySQLPassword());
+        // Connector/J caches statements per physical connection behind Hikari's proxies;
+        // a cached one holds a server‑side prepared handle instead of re‑sending the text
+        int cacheSize = cfg.getStatementCacheSize();
+        if (cacheSize > 0) {
+            c.addDataSourceProperty("cachePrepStmts", "true");
+            c.addDataSourceProperty("prepStmtCacheSize", String.valueOf(cacheSize));
+            c.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            c.addDataSourceProperty("useServerPrepStmts", "true");
+        }
+        c.setMinimumIdle(cfg.getPoolMinIdle());
+        c.setMaximumPoolSize(cfg.getPoolMaxSize());
+        writer  = new HikariDataSource(c);
+        readers = writer;
+    }
+
+    /** Settings shared by every pool; sizes are applied by the caller. */
+    private HikariConfig poolConfig(String name, String url) {
+        ConfigManager cfg = plugin.getConfigManager();
+        HikariConfig c = new HikariConfig();
+        c.setPoolName(name);
+        c.setJdbcUrl(url);
+        c.setConnectionTimeout(cfg.getPoolConnectionTimeout());
+        c.setIdleTimeout(cfg.getPoolIdleTimeout());
+        c.setMaxLifetime(cfg.getPoolMaxLifetime());
+        c.setKeepaliveTime(cfg.getPoolKeepaliveTime());
+        c.setValidationTimeout(cfg.getPoolValidationTimeout());
+        c.setLeakDetectionThreshold(cfg.getPoolLeakDetectionThreshold());
+        return c;
+    }
+
+    /** Runs {@code task} on the plugin executor, timing the wait for a thread and the query itself. */
+    private <T> CompletableFuture<T> query(String name, Supplier<T> task) {
+        long queued = System.nanoTime();
+        return plugin.getAsyncExecutor().supply(() -> {
+            long start = System.nanoTime();
+            queueWait.observeNanos(start - queued);
+            try { return task.get(); }
+            finally { queryTime.labels(name).observeNanos(System.nanoTime() - start); }
+        });
+    }
+
+    /** Runs {@code work} on a read session; an SQL error is logged, counted and fails the future. */
+    private <T> CompletableFuture<T> read(String name, Session.Work<T> work) {
+        return query(name, () -> run(name, false, work));
+    }
+
+    /** As {@link #read(String, Session.Work)}, completing with {@code fallback} on an SQL error. */
+    private <T> CompletableFuture<T> read(String name, T fallback, Session.Work<T> work) {
+        return query(name, () -> runOr(name, false, fallback, work));
     }
 
-    private void initializeMySQL() throws SQLException {
-        String h = plugin.getConfigManager().getMySQLHost();
-        int    p = plugin.getConfigManager().getMySQLPort();
-        String d = plugin.getConfigManager().getMySQLDatabase();
-        String u = plugin.getConfigManager().getMySQLUsername();
-        String pw= plugin.getConfigManager().getMySQLPassword();
+    private <T> CompletableFuture<T> write(String name, Session.Work<T> work) {
+        return query(name, () -> run(name, true, work));
+    }
+
+    private <T> CompletableFuture<T> write(String name, T fallback, Session.Work<T> work) {
+        return query(name, () -> runOr(name, true, fallback, work));
+    }
+
+    private <T> T run(String name, boolean write, Session.Work<T> work) {
+        try (Session s = write ? writeSession() : readSession()) { return work.run(s); }
+        catch (SQLException ex) {
+            failed(name, ex);
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private <T> T runOr(String name, boolean write, T fallback, Session.Work<T> work) {
+        try (Session s = write ? writeSession() : readSession()) { return work.run(s); }
+        catch (SQLException ex) {
+            failed(name, ex);
+            return fallback;
+        }
+    }
 
-        String url = "jdbc:mysql://" + h + ":" + p + "/" + d + "?useSSL=false&autoReconnect=true";
-        connection = DriverManager.getConnection(url, u, pw);
+    /** Logs and counts an SQL failure of {@code query}. */
+    void failed(String query, SQLException ex) {
+        queryErrors.labels(query).inc();
+        plugin.getLogger().severe(query + ": " + ex);
     }
 
+    /** Records a query timed by the caller (write‑behind batches). */
+    void timed(String query, long startNanos) {
+        queryTime.labels(query).observeNanos(System.nanoTime() - startNanos);
+    }
+
+    /** A pooled connection for statements; close it to hand the connection back. */
+    Session writeSession() throws SQLException { return new Session(writer.getConnection(),  slowLog, statements); }
+    Session readSession()  throws SQLException { return new Session(readers.getConnection(), slowLog, statements); }
+    Dialect dialect()                          { return dialect; }
+
     /*------------------------------------------------------------------------*/
     private void createTables() throws SQLException {
-        String auto = "mysql".equalsIgnoreCase(plugin.getConfigManager().getDatabaseType()) ? "AUTO_INCREMENT" : "AUTOINCREMENT";
-
-        String sql = """
-            CREATE TABLE IF NOT EXISTS mails (
-              id INTEGER PRIMARY KEY %s,
-              sender_uuid        VARCHAR(36) NOT NULL,
-              sender_name        VARCHAR(16) NOT NULL,
-              recipient_uuid     VARCHAR(36) NOT NULL,
-              recipient_name     VARCHAR(16) NOT NULL,
-              source_server      VARCHAR(32) NOT NULL,
-              destination_server VARCHAR(32) NOT NULL,
-              items              TEXT        NOT NULL,
-              message            TEXT,
-              sent_at            TIMESTAMP   DEFAULT CURRENT_TIMESTAMP,
-              collected          BOOLEAN     DEFAULT 0,
-              collected_at       TIMESTAMP   NULL
-            )""".formatted(auto);
-
-        try (Statement st = connection.createStatement()) { st.execute(sql); }
+        // DDL runs once at startup, so the migrator uses the raw connection rather than the statement cache
+        try (Connection c = writer.getConnection()) { new SchemaMigrator(plugin, dialect).migrate(c); }
     }
 
     /*------------------------------------------------------------------------*/
+    /** Queues the insert on the write‑behind buffer; completes once its batch commits. */
     public CompletableFuture<Boolean> saveMail(Mail mail) {
-        return CompletableFuture.supplyAsync(() -> {
-            String sql = """
-                INSERT INTO mails (sender_uuid,sender_name,recipient_uuid,recipient_name,
-                                   source_server,destination_server,items,message)
-                VALUES (?,?,?,?,?,?,?,?)
-            """;
-            try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                ps.setString(1, mail.getSenderUUID().toString());
-                ps.setString(2, mail.getSenderName());
-                ps.setString(3, mail.getRecipientUUID().toString());
-                ps.setString(4, mail.getRecipientName());
-                ps.setString(5, mail.getSourceServer());
-                ps.setString(6, mail.getDestinationServer());
-                ps.setString(7, ItemSerializer.serializeItems(mail.getItems()));
-                ps.setString(8, mail.getMessage());
-                return ps.executeUpdate() > 0;
-            }
-            catch (SQLException ex) {
-                plugin.getLogger().severe("saveMail: " + ex);
-                return false;
+        return writeQueue.enqueue(mail);
+    }
+
+    /** As {@link #saveMail(Mail)}, with {@code items} from {@link ItemSerializer#serializeItems}. */
+    public CompletableFuture<Boolean> saveMail(Mail mail, byte[] items) {
+        return writeQueue.enqueue(mail, items);
+    }
+
+    /**
+     * Inserts one chunk of a bulk send in a single transaction. All mails share
+     * the already serialised {@code items}; completes with the rows written.
+     */
+    public CompletableFuture<Integer> saveMailBatch(List<Mail> mails, byte[] items) {
+        return write("saveMailBatch", 0, s -> writeQueue.insertBatch(s, mails, items));
+    }
+
+    /*------------------------------------------------------------------------*/
+    private static final String HEADER_SELECT =
+            "SELECT id, sender_uuid, sender_name, source_server, item_count, message, sent_at FROM mails " +
+            "WHERE recipient_uuid = ? AND destination_key = ? AND collected = 0 ";
+
+    private record Row(Mail mail, MailPage.Cursor cursor) {}
+
+    private static final Sql<List<Row>> FIRST_PAGE = Sql.list(HEADER_SELECT +
+            "ORDER BY sent_at, id LIMIT ?", DatabaseManager::headerRow);
+    private static final Sql<List<Row>> NEXT_PAGE  = Sql.list(HEADER_SELECT +
+            "AND (sent_at > ? OR (sent_at = ? AND id > ?)) ORDER BY sent_at, id LIMIT ?", DatabaseManager::headerRow);
+    private static final Sql<Optional<Integer>> COUNT_UNREAD = Sql.first(
+            "SELECT COUNT(*) FROM mails WHERE recipient_uuid = ? AND destination_key = ? AND collected = 0",
+            rs -> rs.getInt(1));
+
+    /**
+     * One page of unread mail as lightweight headers, seeking on (sent_at, id)
+     * so deep pages cost the same as the first. No item column is read or
+     * decoded; {@link Mail#getItemCount()} comes from item_count. Use
+     * {@link #claimMail(int, UUID, String)} when a mail is actually collected.
+     *
+     * @param after last row of the previous page, or null for the first page
+     */
+    public CompletableFuture<MailPage> getUnreadMailHeaderPage(UUID uuid, String serverCanonical,
+                                                               MailPage.Cursor after, int limit) {
+        return read("getUnreadMailHeaderPage", new MailPage(List.of(), null), s -> {
+            // one extra row tells us whether a next page exists
+            List<Row> rows = after == null
+                    ? FIRST_PAGE.run(s, uuid, serverCanonical, limit + 1)
+                    : NEXT_PAGE.run(s, uuid, serverCanonical, after.sentAt(), after.sentAt(), after.id(), limit + 1);
+
+            boolean more = rows.size() > limit;
+            if (more) rows = rows.subList(0, limit);
+            List<Mail> list = new ArrayList<>(rows.size());
+            for (Row r : rows) {
+                r.mail().setRecipientUUID(uuid);
+                r.mail().setDestinationServer(serverCanonical);
+                list.add(r.mail());
             }
+            return new MailPage(list, more ? rows.get(limit - 1).cursor() : null);
         });
     }
 
-    /*------------------------------------------------------------------------*/
-    public CompletableFuture<List<Mail>> getUnreadMails(UUID uuid, String serverCanonical) {
-        return CompletableFuture.supplyAsync(() -> {
-
-            String sql = """
-                SELECT * FROM mails
-                WHERE recipient_uuid = ? AND LOWER(destination_server) = ? AND collected = 0
-                ORDER BY sent_at
-            """;
-            List<Mail> list = new ArrayList<>();
-            try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                ps.setString(1, uuid.toString());
-                ps.setString(2, serverCanonical);
-                ResultSet rs = ps.executeQuery();
-                while (rs.next()) list.add(rowToMail(rs));
+    /** Decodes the items of one mail; empty if the row is gone. */
+    public CompletableFuture<Optional<MailItems>> loadMailItems(int id) {
+        return read("loadMailItems", s -> SELECT_ITEMS.run(s, id).map(StoredItems::decode));
+    }
+
+    /**
+     * Decodes the items of several unread mails with one query (join prefetch).
+     * Collected or missing mails are absent; a payload that can't be decoded is
+     * logged and left out, and will fail again on collect.
+     */
+    public CompletableFuture<Map<Integer, MailItems>> loadMailItems(Collection<Integer> ids) {
+        List<Integer> list = List.copyOf(ids);
+        if (list.isEmpty()) return CompletableFuture.completedFuture(Map.of());
+        List<Object> in = Sql.padIn(list);
+        return read("loadMailItemsBatch", s -> {
+            Sql<List<Map.Entry<Integer, StoredItems>>> select = Sql.list(
+                    "SELECT id, items, item_data FROM mails WHERE collected = 0 AND id IN (" + Sql.placeholders(in.size()) + ")",
+                    rs -> Map.entry(rs.getInt("id"), StoredItems.read(rs)));
+            Map<Integer, MailItems> decoded = new HashMap<>();
+            for (Map.Entry<Integer, StoredItems> e : select.run(s, in.toArray())) {
+                try { decoded.put(e.getKey(), e.getValue().decode()); }
+                catch (RuntimeException ex) { plugin.getLogger().warning("Mail " + e.getKey() + " items could not be decoded: " + ex.getMessage()); }
             }
-            catch (SQLException ex) { plugin.getLogger().severe("getUnreadMails: " + ex); }
-            return list;
+            return decoded;
         });
     }
 
     /*------------------------------------------------------------------------*/
-    public CompletableFuture<Boolean> markMailAsCollected(int id) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (PreparedStatement ps = connection.prepareStatement(
-                    "UPDATE mails SET collected = 1, collected_at = CURRENT_TIMESTAMP WHERE id = ?")) {
-                ps.setInt(1, id);
-                return ps.executeUpdate() > 0;
+    /*  Collect protocol: claim → mark GRANTED → grant on main thread →        */
+    /*  journal cleared once the player's data is saved. On the next start, a  */
+    /*  claim that was never marked is rolled back and a marked one stays      */
+    /*  collected, so a crash can't duplicate items.                           */
+    /*------------------------------------------------------------------------*/
+
+    private static final Sql<Integer> CLAIM = Sql.update(
+            "UPDATE mails SET collected = 1, collected_at = CURRENT_TIMESTAMP " +
+            "WHERE id = ? AND recipient_uuid = ? AND collected = 0");
+    private static final Sql<Integer> JOURNAL = Sql.update(
+            "INSERT INTO collect_journal (mail_id, player_uuid, server, state) VALUES (?,?,?,'CLAIMED')");
+    private static final Sql<Optional<StoredItems>> SELECT_ITEMS = Sql.first(
+            "SELECT items, item_data FROM mails WHERE id = ?", StoredItems::read);
+    private static final Sql<Integer> MARK_GRANTED  = Sql.update("UPDATE collect_journal SET state = 'GRANTED' WHERE mail_id = ?");
+    private static final Sql<Integer> FORGET_CLAIM  = Sql.update("DELETE FROM collect_journal WHERE mail_id = ?");
+    private static final Sql<Integer> UNCLAIM       = Sql.update("UPDATE mails SET collected = 0, collected_at = NULL WHERE id = ?");
+    private static final Sql<List<Map.Entry<Integer, Boolean>>> JOURNALED = Sql.list(
+            "SELECT mail_id, state FROM collect_journal WHERE server = ?",
+            rs -> Map.entry(rs.getInt(1), "GRANTED".equals(rs.getString(2))));
+
+    /**
+     * Atomically claims an unread mail for {@code recipient} and journals the
+     * claim, in one transaction. Completes with the decoded items, or empty if
+     * the mail was already collected (double click, another server).
+     */
+    public CompletableFuture<Optional<MailItems>> claimMail(int id, UUID recipient, String server) {
+        return write("claimMail", s -> s.transaction(tx -> {
+            if (CLAIM.run(tx, id, recipient) == 0) return Optional.<MailItems>empty();
+            JOURNAL.run(tx, id, recipient, server);
+            // decoded inside the transaction: a payload that can't be read rolls the claim back
+            return Optional.of(SELECT_ITEMS.run(tx, id).orElseThrow().decode());
+        }));
+    }
+
+    /**
+     * As {@link #claimMail(int, UUID, String)} for a caller that already holds
+     * the decoded items: claims and journals without reading item columns.
+     * False if the mail was already collected.
+     */
+    public CompletableFuture<Boolean> claimMailOnly(int id, UUID recipient, String server) {
+        return write("claimMailOnly", s -> s.transaction(tx -> {
+            if (CLAIM.run(tx, id, recipient) == 0) return false;
+            JOURNAL.run(tx, id, recipient, server);
+            return true;
+        }));
+    }
+
+    /** Undoes a claim whose items were never granted (player left, inventory filled up). */
+    public CompletableFuture<Boolean> releaseClaim(int id) {
+        return write("releaseClaim", false, s -> releaseClaims(s, List.of(id)) > 0);
+    }
+
+    /** Items are about to be handed over; from here on a crash leaves the mail collected, never restored. */
+    public CompletableFuture<Boolean> markGranted(int id) {
+        return write("markGranted", false, s -> MARK_GRANTED.run(s, id) > 0);
+    }
+
+    /** Player data holding these grants was saved; their journal rows are done. */
+    public CompletableFuture<Void> clearJournal(Collection<Integer> ids) {
+        List<Integer> copy = List.copyOf(ids);
+        return query("clearJournal", () -> { clearJournalNow(copy); return null; });
+    }
+
+    /** Synchronous variant for plugin disable, when the executor is already draining. */
+    public void clearJournalNow(Collection<Integer> ids) {
+        if (ids.isEmpty()) return;
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (int id : ids) rows.add(new Object[] {id});
+        runOr("clearJournal", true, 0, s -> FORGET_CLAIM.batch(s, rows));
+    }
+
+    /**
+     * Startup recovery for journal rows this server left behind:
+     * – CLAIMED: GRANTED is written before any item is handed out, so the
+     *   items never reached an inventory and the mail goes back to the mailbox.
+     * – GRANTED: the items may have been handed over, and the player file may
+     *   already hold them. The mail stays collected (a lost grant beats a
+     *   duplicated one) and the ids are logged for staff to follow up.
+     */
+    private void recoverInterruptedCollects() throws SQLException {
+        List<Integer> claimed = new ArrayList<>(), granted = new ArrayList<>();
+        try (Session s = writeSession()) {
+            for (Map.Entry<Integer, Boolean> row : JOURNALED.run(s, plugin.getConfigManager().getServerName()))
+                (row.getValue() ? granted : claimed).add(row.getKey());
+            if (claimed.isEmpty() && granted.isEmpty()) return;
+            s.transaction(tx -> {
+                for (int id : claimed) UNCLAIM.run(tx, id);
+                for (int id : claimed) FORGET_CLAIM.run(tx, id);
+                for (int id : granted) FORGET_CLAIM.run(tx, id);
+                return null;
+            });
+        }
+        if (!claimed.isEmpty())
+            plugin.getLogger().warning("Restored " + claimed.size() + " mail(s) whose collection was interrupted by a crash");
+        if (!granted.isEmpty())
+            plugin.getLogger().warning("Kept " + granted.size() + " mail(s) collected whose items were granted just before a crash; "
+                    + "check these players' inventories: mail ids " + granted);
+    }
+
+    private int releaseClaims(Session s, List<Integer> ids) throws SQLException {
+        return s.transaction(tx -> {
+            int released = 0;
+            for (int id : ids) {
+                released += UNCLAIM.run(tx, id);
+                FORGET_CLAIM.run(tx, id);
             }
-            catch (SQLException ex) { plugin.getLogger().severe("markCollected: " + ex); return false; }
+            return released;
         });
     }
 
     /*------------------------------------------------------------------------*/
     public CompletableFuture<Integer> getMailCount(UUID uuid, String serverCanonical) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (PreparedStatement ps = connection.prepareStatement(
-                    "SELECT COUNT(*) FROM mails WHERE recipient_uuid = ? AND LOWER(destination_server) = ? AND collected = 0")) {
-                ps.setString(1, uuid.toString());
-                ps.setString(2, serverCanonical);
-                ResultSet rs = ps.executeQuery();
-                return rs.next() ? rs.getInt(1) : 0;
-            }
-            catch (SQLException ex) { plugin.getLogger().severe("getMailCount: " + ex); return 0; }
+        return read("getMailCount", 0, s -> COUNT_UNREAD.run(s, uuid, serverCanonical).orElse(0));
+    }
+
+    /*------------------------------------------------------------------------*/
+    /** Records a login: {@code name} now belongs to {@code uuid}. */
+    public CompletableFuture<Void> savePlayerName(UUID uuid, String name, String server) {
+        return write("savePlayerName", null, s -> {
+            upsertName.run(s, uuid, name, name.toLowerCase(Locale.ROOT), server);
+            return null;
+        });
+    }
+
+    private static final Sql<List<Recipient>> ALL_PLAYERS = Sql.list(
+            "SELECT uuid, name FROM player_names",
+            rs -> new Recipient(UUID.fromString(rs.getString("uuid")), rs.getString("name")));
+
+    /** Every player who has joined any server on the network, with their latest name. */
+    public CompletableFuture<List<Recipient>> findAllPlayers() {
+        return read("findAllPlayers", ALL_PLAYERS::run);
+    }
+
+    /**
+     * UUIDs for lower‑cased names, in one query. A name that moved to another
+     * account resolves to whoever logged in with it last; unknown names are absent.
+     */
+    public CompletableFuture<Map<String, UUID>> findPlayerUUIDs(Collection<String> nameKeys) {
+        List<String> keys = List.copyOf(nameKeys);
+        if (keys.isEmpty()) return CompletableFuture.completedFuture(Map.of());
+        List<Object> in = Sql.padIn(keys);
+        return read("findPlayerUUIDs", s -> {
+            Sql<List<Map.Entry<String, UUID>>> lookup = Sql.list(
+                    "SELECT uuid, name_key FROM player_names WHERE name_key IN (" + Sql.placeholders(in.size()) +
+                    ") ORDER BY last_seen",
+                    rs -> Map.entry(rs.getString("name_key"), UUID.fromString(rs.getString("uuid"))));
+            Map<String, UUID> found = new HashMap<>();
+            for (Map.Entry<String, UUID> e : lookup.run(s, in.toArray())) found.put(e.getKey(), e.getValue());
+            return found;
         });
     }
 
     /*------------------------------------------------------------------------*/
-    private Mail rowToMail(ResultSet rs) throws SQLException {
+    private static Row headerRow(ResultSet rs) throws SQLException {
         Mail m = new Mail();
         m.setId(rs.getInt("id"));
         m.setSenderUUID(UUID.fromString(rs.getString("sender_uuid")));
         m.setSenderName(rs.getString("sender_name"));
-        m.setRecipientUUID(UUID.fromString(rs.getString("recipient_uuid")));
-        m.setRecipientName(rs.getString("recipient_name"));
         m.setSourceServer(rs.getString("source_server"));
-        m.setDestinationServer(rs.getString("destination_server"));
-        m.setItems(ItemSerializer.deserializeItems(rs.getString("items")));
+        m.setItemCount(rs.getInt("item_count"));
         m.setMessage(rs.getString("message"));
         m.setSentAt(rs.getTimestamp("sent_at"));
-        m.setCollected(rs.getBoolean("collected"));
-        m.setCollectedAt(rs.getTimestamp("collected_at"));
-        return m;
+        return new Row(m, new MailPage.Cursor(rs.getString("sent_at"), m.getId()));
+    }
+
+    /** Raw item columns of one row: binary item_data, or the legacy Base64 items column. */
+    private record StoredItems(byte[] blob, String legacy) {
+        static StoredItems read(ResultSet rs) throws SQLException {
+            byte[] blob = rs.getBytes("item_data");
+            return new StoredItems(blob, blob != null ? null : rs.getString("items"));
+        }
+
+        MailItems decode() {
+            return blob != null
+                    ? MailItems.decoded(ItemSerializer.deserializeItems(blob), ItemSerializer.rawSize(blob))
+                    : MailItems.decoded(ItemSerializer.deserializeLegacyItems(legacy), legacy == null ? 0 : legacy.length() / 4 * 3);
+        }
+    }
+
+    public LegacyItemMigrator getItemMigrator() { return itemMigrator; }
+    public MailSweeper        getSweeper()      { return sweeper; }
+
+    public ItemSerializer.Codec itemCodec() {
+        return ItemSerializer.Codec.fromConfig(plugin.getConfigManager().getItemCompression());
     }
 
     /*------------------------------------------------------------------------*/
+    /** Flushes queued inserts, then closes the pools. */
     public void close() {
-        if (connection != null) try { connection.close(); }
-        catch (SQLException ex) { plugin.getLogger().severe("DB close: " + ex); }
+        if (writeQueue != null) writeQueue.close();
+        if (statements != null) statements.close();
+        if (readers != null && readers != writer) readers.close();
+        if (writer  != null) writer.close();
     }
 }
@@ -0,0 +1,46 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/database/Dialect.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.database;
+
+import java.util.Locale;
+
+/** SQL flavour of the configured backend. */
+public enum Dialect {
+
+    SQLITE, MYSQL;
+
+    /** Anything that is not "mysql" falls back to SQLite, matching the old behaviour. */
+    public static Dialect fromConfig(String type) {
+        return type != null && type.trim().toLowerCase(Locale.ROOT).equals("mysql") ? MYSQL : SQLITE;
+    }
+
+    public String autoIncrement() { return this == MYSQL ? "AUTO_INCREMENT" : "AUTOINCREMENT"; }
+
+    /** Column type for binary payloads; plain BLOB caps at 64 KiB on MySQL. */
+    public String blobType()      { return this == MYSQL ? "MEDIUMBLOB" : "BLOB"; }
+
+    /** INSERT that silently skips rows whose key already exists. */
+    public String insertIgnore() { return this == MYSQL ? "INSERT IGNORE" : "INSERT OR IGNORE"; }
+
+    /** Tail for an INSERT that overwrites {@code cols} when {@code key} already exists. */
+    public String upsertSuffix(String key, String... cols) {
+        StringBuilder sb = new StringBuilder(this == MYSQL ? " ON DUPLICATE KEY UPDATE " : " ON CONFLICT(" + key + ") DO UPDATE SET ");
+        for (int i = 0; i < cols.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(cols[i]).append(" = ").append(this == MYSQL ? "VALUES(" + cols[i] + ")" : "excluded." + cols[i]);
+        }
+        return sb.toString();
+    }
+
+    /** Prefix that turns a statement into a plan query without running it. */
+    public String explain() { return this == MYSQL ? "EXPLAIN " : "EXPLAIN QUERY PLAN "; }
+
+    /**
+     * Timestamp expression for "now minus ? days" (one int placeholder),
+     * computed in the database so it matches how CURRENT_TIMESTAMP was stored.
+     */
+    public String daysAgo() {
+        return this == MYSQL ? "(CURRENT_TIMESTAMP - INTERVAL ? DAY)" : "datetime('now', '-' || ? || ' days')";
+    }
+}
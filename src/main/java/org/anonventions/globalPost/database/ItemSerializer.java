@@ -2,39 +2,210 @@ package org.anonventions.globalPost.database;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.anonventions.globalPost.io.Wire;
+import org.anonventions.globalPost.metrics.MetricsRegistry;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.util.io.BukkitObjectInputStream;
-import org.bukkit.util.io.BukkitObjectOutputStream;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.io.*;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
+/**
+ * Item payload codec.
+ * <pre>
+ * header : 'G' 'P' | format version (1 byte) | codec id (1 byte) | raw length (int)
+ * body   : codec( varint count, then per item varint length + Paper NBT bytes )
+ * </pre>
+ * Rows written before the binary format hold Base64 Java serialization in the
+ * items TEXT column; {@link #deserializeLegacyItems(String)} still reads those.
+ */
 public class ItemSerializer {
 
     private static final Gson gson = new GsonBuilder().create();
 
-    public static String serializeItems(List<ItemStack> items) {
+    private static final byte MAGIC_0        = 'G';
+    private static final byte MAGIC_1        = 'P';
+    private static final byte FORMAT_VERSION = 1;
+    private static final int  HEADER_SIZE    = 8;
+
+    /**
+     * Limits checked before anything is allocated from a stored header, so a
+     * corrupt row can't ask for gigabytes: a mail never holds more stacks than
+     * the largest chest GUI, and the client refuses item NBT above 2 MiB.
+     */
+    private static final int  MAX_ITEMS      = 54;
+    private static final int  MAX_ITEM_BYTES = 2 * 1024 * 1024;
+    private static final int  MAX_RAW_LENGTH = 5 + MAX_ITEMS * (5 + MAX_ITEM_BYTES);
+
+    /** Payloads below this size are stored raw; compression would not pay for its header. */
+    private static final int  MIN_COMPRESS_SIZE = 128;
+
+    public enum Codec {
+        NONE(0), DEFLATE(1), LZ4(2);
+
+        private final byte id;
+        Codec(int id) { this.id = (byte) id; }
+
+        public static Codec fromId(byte id) {
+            for (Codec c : values()) if (c.id == id) return c;
+            throw new IllegalArgumentException("Unknown item codec id " + id);
+        }
+
+        /** Config value → codec; unknown names fall back to NONE. */
+        public static Codec fromConfig(String name) {
+            if (name == null) return NONE;
+            try { return valueOf(name.trim().toUpperCase(Locale.ROOT)); }
+            catch (IllegalArgumentException ex) { return NONE; }
+        }
+    }
+
+    /*------------------------------------------------------------------------*/
+    /** Set once by {@link #instrument}; null (benchmarks, tools) means not measured. */
+    private static volatile Instruments instruments;
+
+    private record Instruments(MetricsRegistry.Histogram encodeTime, MetricsRegistry.Histogram decodeTime,
+                               MetricsRegistry.Histogram encodedBytes, MetricsRegistry.Histogram decodedBytes) {}
+
+    /** Times {@link #serializeItems}/{@link #deserializeItems} (NBT included) and records payload sizes. */
+    public static void instrument(MetricsRegistry metrics) {
+        var time  = metrics.histogram("items_codec_seconds", "Item payload encode/decode time, NBT included",
+                                      MetricsRegistry.LATENCY_BUCKETS, "op");
+        var bytes = metrics.histogram("items_payload_bytes", "Stored item payload size (after compression)",
+                                      MetricsRegistry.SIZE_BUCKETS, "op");
+        instruments = new Instruments(time.labels("encode"), time.labels("decode"),
+                                      bytes.labels("encode"), bytes.labels("decode"));
+    }
+
+    public static byte[] serializeItems(List<ItemStack> items, Codec codec) {
+        long start = System.nanoTime();
+        List<byte[]> encoded = new ArrayList<>(items.size());
+        for (ItemStack item : items)
+            if (item != null && !item.getType().isAir()) encoded.add(item.serializeAsBytes());
+        byte[] data = pack(encoded, codec);
+
+        Instruments m = instruments;
+        if (m != null) {
+            m.encodeTime().observeNanos(System.nanoTime() - start);
+            m.encodedBytes().observe(data.length);
+        }
+        return data;
+    }
+
+    public static List<ItemStack> deserializeItems(byte[] data) {
+        long start = System.nanoTime();
+        List<byte[]> encoded = unpack(data);
+        List<ItemStack> items = new ArrayList<>(encoded.size());
+        for (byte[] bytes : encoded) items.add(ItemStack.deserializeBytes(bytes));
+
+        Instruments m = instruments;
+        if (m != null) {
+            m.decodeTime().observeNanos(System.nanoTime() - start);
+            m.decodedBytes().observe(data.length);
+        }
+        return items;
+    }
+
+    /**
+     * Frames and compresses already encoded items (Paper NBT bytes). Split out of
+     * {@link #serializeItems} so the codec can be measured without a server.
+     */
+    public static byte[] pack(List<byte[]> encoded, Codec codec) {
         try {
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            BukkitObjectOutputStream dataOutput = new BukkitObjectOutputStream(outputStream);
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(raw);
 
-            dataOutput.writeInt(items.size());
+            Wire.writeVarInt(out, encoded.size());
+            for (byte[] bytes : encoded) {
+                Wire.writeVarInt(out, bytes.length);
+                out.write(bytes);
+            }
+            out.flush();
+
+            byte[] body = raw.toByteArray();
+            if (body.length < MIN_COMPRESS_SIZE) codec = Codec.NONE;
 
-            for (ItemStack item : items) {
-                dataOutput.writeObject(item);
+            byte[] packed = compress(body, codec);
+            if (codec != Codec.NONE && packed.length >= body.length) { // incompressible, store raw
+                codec  = Codec.NONE;
+                packed = body;
             }
 
-            dataOutput.close();
-            return Base64.getEncoder().encodeToString(outputStream.toByteArray());
+            ByteArrayOutputStream result = new ByteArrayOutputStream(HEADER_SIZE + packed.length);
+            DataOutputStream header = new DataOutputStream(result);
+            header.writeByte(MAGIC_0);
+            header.writeByte(MAGIC_1);
+            header.writeByte(FORMAT_VERSION);
+            header.writeByte(codec.id);
+            header.writeInt(body.length);
+            header.write(packed);
+            return result.toByteArray();
         } catch (IOException e) {
             throw new RuntimeException("Failed to serialize items", e);
         }
     }
 
-    public static List<ItemStack> deserializeItems(String data) {
+    /** Inverse of {@link #pack}: the per‑item NBT bytes, not yet decoded. */
+    public static List<byte[]> unpack(byte[] data) {
+        if (!isBinary(data)) throw new IllegalArgumentException("Not a GlobalPost item payload");
+        if (data[2] != FORMAT_VERSION) throw new IllegalArgumentException("Unsupported item format v" + data[2]);
+
+        try {
+            Codec codec = Codec.fromId(data[3]);
+            byte[] body = decompress(data, HEADER_SIZE, rawLength(data), codec);
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+            int size = Wire.readVarInt(in);
+            if (size < 0 || size > MAX_ITEMS) throw new DataFormatException("Item payload claims " + size + " items");
+            List<byte[]> encoded = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                int length = Wire.readVarInt(in);
+                if (length < 0 || length > Math.min(MAX_ITEM_BYTES, in.available()))
+                    throw new DataFormatException("Item payload claims a " + length + " byte item");
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                encoded.add(bytes);
+            }
+            return encoded;
+        } catch (IOException | DataFormatException e) {
+            throw new RuntimeException("Failed to deserialize items", e);
+        }
+    }
+
+    /** Number of items in a binary payload without decoding any NBT. */
+    public static int countItems(byte[] data) {
+        if (!isBinary(data)) throw new IllegalArgumentException("Not a GlobalPost item payload");
+        try {
+            Codec codec = Codec.fromId(data[3]);
+            if (codec == Codec.NONE)
+                return Wire.readVarInt(new DataInputStream(new ByteArrayInputStream(data, HEADER_SIZE, data.length - HEADER_SIZE)));
+            return Wire.readVarInt(new DataInputStream(new ByteArrayInputStream(decompress(data, HEADER_SIZE, rawLength(data), codec))));
+        } catch (IOException | DataFormatException e) {
+            throw new RuntimeException("Failed to read item count", e);
+        }
+    }
+
+    /** Uncompressed length of a binary payload's body, from the header; nothing is decoded. */
+    public static int rawSize(byte[] data) {
+        if (!isBinary(data)) throw new IllegalArgumentException("Not a GlobalPost item payload");
+        return rawLength(data);
+    }
+
+    /** True if the bytes start with the binary header. */
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length >= HEADER_SIZE && data[0] == MAGIC_0 && data[1] == MAGIC_1;
+    }
+
+    /** Reads the pre‑binary Base64 + BukkitObjectOutputStream format. */
+    public static List<ItemStack> deserializeLegacyItems(String data) {
         try {
             ByteArrayInputStream inputStream = new ByteArrayInputStream(Base64.getDecoder().decode(data));
             BukkitObjectInputStream dataInput = new BukkitObjectInputStream(inputStream);
@@ -53,4 +224,74 @@ public class ItemSerializer {
             throw new RuntimeException("Failed to deserialize items", e);
         }
     }
-}
\ No newline at end of file
+
+    /** Item count of a legacy row; the count is written before any object. */
+    public static int countLegacyItems(String data) {
+        try (BukkitObjectInputStream in = new BukkitObjectInputStream(
+                new ByteArrayInputStream(Base64.getDecoder().decode(data)))) {
+            return in.readInt();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read item count", e);
+        }
+    }
+
+    /*------------------------------------------------------------------------*/
+    private static byte[] compress(byte[] body, Codec codec) {
+        switch (codec) {
+            case DEFLATE -> {
+                Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+                try {
+                    deflater.setInput(body);
+                    deflater.finish();
+                    ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2 + 16);
+                    byte[] buf = new byte[4096];
+                    while (!deflater.finished()) out.write(buf, 0, deflater.deflate(buf));
+                    return out.toByteArray();
+                } finally { deflater.end(); }
+            }
+            case LZ4 -> {
+                return Lz4.COMPRESSOR.compress(body);
+            }
+            default -> { return body; }
+        }
+    }
+
+    private static byte[] decompress(byte[] data, int offset, int rawLength, Codec codec) throws DataFormatException {
+        if (codec == Codec.NONE && rawLength != data.length - offset)
+            throw new DataFormatException("Item payload is " + (data.length - offset) + " bytes, header says " + rawLength);
+        byte[] body = new byte[rawLength];
+        switch (codec) {
+            case DEFLATE -> {
+                Inflater inflater = new Inflater();
+                try {
+                    inflater.setInput(data, offset, data.length - offset);
+                    int read = 0;
+                    while (read < rawLength) {
+                        int n = inflater.inflate(body, read, rawLength - read);
+                        if (n == 0 && (inflater.finished() || inflater.needsInput()))
+                            throw new DataFormatException("Truncated item payload");
+                        read += n;
+                    }
+                } finally { inflater.end(); }
+            }
+            case LZ4  -> Lz4.DECOMPRESSOR.decompress(data, offset, body, 0, rawLength);
+            case NONE -> System.arraycopy(data, offset, body, 0, rawLength);
+        }
+        return body;
+    }
+
+    /** The header's body length, rejected beyond what a real mail can hold. */
+    private static int rawLength(byte[] data) {
+        int length = ((data[4] & 0xFF) << 24) | ((data[5] & 0xFF) << 16) | ((data[6] & 0xFF) << 8) | (data[7] & 0xFF);
+        if (length < 0 || length > MAX_RAW_LENGTH)
+            throw new IllegalArgumentException("Item payload claims " + length + " bytes (limit " + MAX_RAW_LENGTH + ")");
+        return length;
+    }
+
+    /** Lazy holder so lz4 is only touched when the codec is actually used. */
+    private static final class Lz4 {
+        // Pure‑Java instance: the JNI build cannot bind once the library is relocated by shade
+        static final LZ4Compressor       COMPRESSOR   = LZ4Factory.fastestJavaInstance().fastCompressor();
+        static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestJavaInstance().fastDecompressor();
+    }
+}
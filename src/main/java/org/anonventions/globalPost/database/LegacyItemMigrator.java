@@ -0,0 +1,108 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/database/LegacyItemMigrator.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.database;
+
+import org.anonventions.globalPost.GlobalPost;
+import org.bukkit.inventory.ItemStack;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Background re‑encoder for rows that still hold Base64 items.
+ * – Walks mails by id, one executor task per chunk, so normal queries interleave.
+ * – Each chunk is read and re‑encoded before the write session is taken, so
+ *   SQLite's single writer is only held for the UPDATE batch; the batch
+ *   skips rows another write already converted.
+ * – Rows that fail to decode are logged and left untouched.
+ */
+public class LegacyItemMigrator {
+
+    private static final int CHUNK         = 500;
+    private static final int REPORT_EVERY  = 20;   // chunks between progress messages
+
+    private record ChunkResult(long lastId, int converted, int failed) {}
+    private record LegacyRow(long id, String items) {}
+
+    private static final Sql<List<LegacyRow>> SELECT_LEGACY = Sql.list(
+            "SELECT id, items FROM mails WHERE id > ? AND item_data IS NULL ORDER BY id LIMIT " + CHUNK,
+            rs -> new LegacyRow(rs.getLong("id"), rs.getString("items")));
+    private static final Sql<Integer> REENCODE = Sql.update(
+            "UPDATE mails SET item_data = ?, items = '' WHERE id = ? AND item_data IS NULL");
+
+    private final GlobalPost      plugin;
+    private final DatabaseManager db;
+    private final AtomicBoolean   running = new AtomicBoolean();
+
+    LegacyItemMigrator(GlobalPost plugin, DatabaseManager db) {
+        this.plugin = plugin;
+        this.db     = db;
+    }
+
+    /** Starts a pass; false if one is already running. */
+    public boolean start(Consumer<String> progress) {
+        if (!running.compareAndSet(false, true)) return false;
+        progress.accept("§eRe‑encoding legacy mail items in the background...");
+        runChunk(0, 0, 0, 0, progress);
+        return true;
+    }
+
+    public boolean isRunning() { return running.get(); }
+
+    /*------------------------------------------------------------------------*/
+    private void runChunk(long afterId, int chunks, int converted, int failed, Consumer<String> progress) {
+        plugin.getAsyncExecutor().supply(() -> convertChunk(afterId)).whenComplete((r, ex) -> {
+            if (ex != null) {
+                running.set(false);
+                plugin.getLogger().warning("Item migration stopped: " + ex);
+                progress.accept("§cItem migration stopped after " + converted + " row(s); run it again to resume.");
+                return;
+            }
+
+            int done = converted + r.converted(), bad = failed + r.failed();
+            if (r.lastId() < 0) {
+                running.set(false);
+                progress.accept("§aItem migration finished: " + done + " row(s) re‑encoded, " + bad + " failed.");
+                return;
+            }
+            if ((chunks + 1) % REPORT_EVERY == 0)
+                progress.accept("§7Item migration: " + done + " row(s) re‑encoded so far...");
+
+            runChunk(r.lastId(), chunks + 1, done, bad, progress);
+        });
+    }
+
+    private ChunkResult convertChunk(long afterId) {
+        ItemSerializer.Codec codec = db.itemCodec();
+        try {
+            List<LegacyRow> rows;
+            try (Session s = db.readSession()) { rows = SELECT_LEGACY.run(s, afterId); }
+
+            long lastId = -1;
+            int failed = 0;
+            List<Object[]> updates = new ArrayList<>();
+            for (LegacyRow row : rows) {
+                lastId = row.id();
+                try {
+                    List<ItemStack> items = ItemSerializer.deserializeLegacyItems(row.items());
+                    updates.add(new Object[] {ItemSerializer.serializeItems(items, codec), row.id()});
+                }
+                catch (RuntimeException ex) {
+                    plugin.getLogger().warning("Item migration: mail " + row.id() + " could not be decoded: " + ex.getMessage());
+                    failed++;
+                }
+            }
+
+            if (!updates.isEmpty())
+                try (Session s = db.writeSession()) { s.transaction(tx -> REENCODE.batch(tx, updates)); }
+            return new ChunkResult(lastId, updates.size(), failed);
+        }
+        catch (SQLException ex) {
+            throw new IllegalStateException("convert chunk after id " + afterId + ": " + ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/database/MailSweeper.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.database;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.anonventions.globalPost.GlobalPost;
+import org.anonventions.globalPost.config.ConfigManager;
+import org.anonventions.globalPost.messaging.PluginMessageHandler;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves dead rows out of mails so the live table stays small.
+ * – Collected mail older than sweeper.collected_retention_days, and unread mail
+ *   older than settings.mail_expiry_days (0 = never), is archived then deleted.
+ * – Target is the mails_archive table or a gzip'd JSON‑lines file per run.
+ * – One chunk per transaction with a pause in between, so MySQL never holds
+ *   long locks and the SQLite writer is free for regular mail between chunks.
+ * – Rows with a pending collect_journal entry are never touched.
+ */
+public class MailSweeper {
+
+    private static final String COLUMNS =
+            "id, sender_uuid, sender_name, recipient_uuid, recipient_name, source_server, destination_key, " +
+            "items, item_data, item_count, message, sent_at, collected_at";
+
+    private static final Gson gson = new Gson();
+
+    private enum Phase {
+        COLLECTED("collected = 1 AND collected_at < %s"),
+        EXPIRED  ("collected = 0 AND collected_at IS NULL AND sent_at < %s");
+
+        final String where;
+        Phase(String where) { this.where = where; }
+    }
+
+    /** Totals since startup plus the outcome of the last run. */
+    public record Stats(long runs, long archivedTotal, long expiredTotal,
+                        int lastArchived, int lastExpired, long lastDurationMs,
+                        long lastRunAt, String lastError) {
+        static final Stats NONE = new Stats(0, 0, 0, 0, 0, 0, 0, null);
+    }
+
+    private record Run(long startedAt, int collected, int expired, Writer export) {}
+
+    private final GlobalPost      plugin;
+    private final DatabaseManager db;
+    private final AtomicBoolean   running = new AtomicBoolean();
+    private volatile Stats        stats   = Stats.NONE;
+
+    MailSweeper(GlobalPost plugin, DatabaseManager db) {
+        this.plugin = plugin;
+        this.db     = db;
+    }
+
+    /** Starts a sweep unless one is running; {@code done} (may be null) gets a summary line. */
+    public boolean start(Consumer<String> done) {
+        if (!running.compareAndSet(false, true)) return false;
+        runChunk(Phase.COLLECTED, 0, new Run(System.currentTimeMillis(), 0, 0, null),
+                done != null ? done : msg -> {});
+        return true;
+    }
+
+    public boolean isRunning() { return running.get(); }
+    public Stats   getStats()  { return stats; }
+
+    /*------------------------------------------------------------------------*/
+    private void runChunk(Phase phase, int chunks, Run run, Consumer<String> done) {
+        ConfigManager cfg = plugin.getConfigManager();
+        int days = phase == Phase.COLLECTED ? cfg.getSweepCollectedRetentionDays() : cfg.getMailExpiryDays();
+        if (days <= 0 || chunks >= cfg.getSweepMaxChunksPerRun()) { nextPhase(phase, run, done); return; }
+
+        // The pause only delays the hand‑off; the chunk itself still runs on the bounded executor
+        long pause = chunks == 0 ? 0 : cfg.getSweepPauseMs();
+        CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(pause, TimeUnit.MILLISECONDS))
+                .thenCompose(v -> plugin.getAsyncExecutor().supply(() -> sweepChunk(phase, days, run)))
+                .whenComplete((next, ex) -> {
+                    if (ex != null) { finish(run, ex, done); return; }
+                    int moved = (next.collected() + next.expired()) - (run.collected() + run.expired());
+                    if (moved < cfg.getSweepChunkSize()) nextPhase(phase, next, done);
+                    else runChunk(phase, chunks + 1, next, done);
+                });
+    }
+
+    private void nextPhase(Phase phase, Run run, Consumer<String> done) {
+        if (phase == Phase.COLLECTED) runChunk(Phase.EXPIRED, 0, run, done);
+        else finish(run, null, done);
+    }
+
+    private Run sweepChunk(Phase phase, int days, Run run) {
+        ConfigManager cfg = plugin.getConfigManager();
+        boolean export = cfg.getSweepMode().equals("export");
+        Writer[] out = {run.export()};
+
+        try (Session s = db.writeSession()) {
+            int deleted = s.transaction(tx -> {
+                List<Integer> ids = Sql.list(
+                        "SELECT id FROM mails WHERE " + phase.where.formatted(db.dialect().daysAgo()) +
+                        " AND id NOT IN (SELECT mail_id FROM collect_journal) LIMIT ?", rs -> rs.getInt(1))
+                        .run(tx, days, cfg.getSweepChunkSize());
+                if (ids.isEmpty()) return 0;
+
+                List<Object> padded = Sql.padIn(ids);
+                String in = " WHERE id IN (" + Sql.placeholders(padded.size()) + ")";
+                if (export) {
+                    try {
+                        if (out[0] == null) out[0] = openExport();
+                        exportRows(tx, in, padded, phase, out[0]);
+                    }
+                    catch (IOException ex) { throw new UncheckedIOException(ex); }
+                }
+                else {
+                    List<Object> params = new ArrayList<>(padded.size() + 1);
+                    params.add(phase.name());
+                    params.addAll(padded);
+                    Sql.update("INSERT INTO mails_archive (" + COLUMNS + ", reason) SELECT " + COLUMNS + ", ? FROM mails" + in)
+                            .run(tx, params.toArray());
+                }
+                return Sql.update("DELETE FROM mails" + in).run(tx, padded.toArray());
+            });
+
+            return phase == Phase.COLLECTED
+                    ? new Run(run.startedAt(), run.collected() + deleted, run.expired(), out[0])
+                    : new Run(run.startedAt(), run.collected(), run.expired() + deleted, out[0]);
+        }
+        catch (SQLException | UncheckedIOException ex) {
+            if (out[0] != null && out[0] != run.export())
+                try { out[0].close(); } catch (IOException ignored) { /* already failing */ }
+            Throwable cause = ex instanceof UncheckedIOException io ? io.getCause() : ex;
+            throw new IllegalStateException(phase.name().toLowerCase(Locale.ROOT) + " sweep: " + cause.getMessage(), cause);
+        }
+    }
+
+    /*------------------------------------------------------------------------*/
+    /** Lines are flushed before the DELETE commits: a crash can repeat a line, never lose one. */
+    private void exportRows(Session s, String in, List<Object> ids, Phase phase, Writer out)
+            throws SQLException, IOException {
+        List<JsonObject> rows = Sql.list("SELECT " + COLUMNS + " FROM mails" + in, rs -> {
+            JsonObject row = new JsonObject();
+            row.addProperty("id",             rs.getInt("id"));
+            row.addProperty("sender_uuid",    rs.getString("sender_uuid"));
+            row.addProperty("sender_name",    rs.getString("sender_name"));
+            row.addProperty("recipient_uuid", rs.getString("recipient_uuid"));
+            row.addProperty("recipient_name", rs.getString("recipient_name"));
+            row.addProperty("source_server",  rs.getString("source_server"));
+            row.addProperty("destination",    rs.getString("destination_key"));
+            row.addProperty("item_count",     rs.getInt("item_count"));
+            row.addProperty("message",        rs.getString("message"));
+            row.addProperty("sent_at",        rs.getString("sent_at"));
+            row.addProperty("collected_at",   rs.getString("collected_at"));
+            row.addProperty("reason",         phase.name());
+            byte[] blob = rs.getBytes("item_data");
+            if (blob != null) row.addProperty("item_data", Base64.getEncoder().encodeToString(blob));
+            else              row.addProperty("items", rs.getString("items"));
+            return row;
+        }).run(s, ids.toArray());
+
+        for (JsonObject row : rows) {
+            out.write(gson.toJson(row));
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    private Writer openExport() throws IOException {
+        File dir = new File(plugin.getDataFolder(), "archive");
+        if (!dir.exists() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+        File file = new File(dir, "mails-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new java.util.Date()) + ".jsonl.gz");
+        return new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(new FileOutputStream(file, true), true), StandardCharsets.UTF_8));
+    }
+
+    /*------------------------------------------------------------------------*/
+    private void finish(Run run, Throwable ex, Consumer<String> done) {
+        if (run.export() != null)
+            try { run.export().close(); }
+            catch (IOException io) { plugin.getLogger().warning("Closing sweep export: " + io); }
+
+        long took = System.currentTimeMillis() - run.startedAt();
+        String error = ex == null ? null : String.valueOf(ex.getCause() != null ? ex.getCause().getMessage() : ex);
+        Stats s = stats;
+        stats = new Stats(s.runs() + 1, s.archivedTotal() + run.collected(), s.expiredTotal() + run.expired(),
+                run.collected(), run.expired(), took, run.startedAt(), error);
+        running.set(false);
+
+        // Expired mail was unread, so cached counts here and elsewhere are now too high
+        if (run.expired() > 0 && plugin.getMailboxManager() != null) {
+            plugin.getMailboxManager().invalidateAllMailCounts();
+            plugin.getMessageHandler().sendCountInvalidationAll(PluginMessageHandler.BROADCAST);
+        }
+
+        if (error != null) {
+            plugin.getLogger().warning("Mail sweep stopped: " + error);
+            done.accept("§cMail sweep stopped after " + (run.collected() + run.expired()) + " row(s): " + error);
+        }
+        else {
+            if (run.collected() + run.expired() > 0)
+                plugin.getLogger().info("Mail sweep: " + run.collected() + " collected and " + run.expired()
+                        + " expired mail(s) archived in " + took + " ms");
+            done.accept("§aMail sweep finished: " + run.collected() + " collected, " + run.expired()
+                    + " expired mail(s) archived in " + took + " ms.");
+        }
+    }
+}
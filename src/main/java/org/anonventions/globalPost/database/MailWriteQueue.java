@@ -0,0 +1,166 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/database/MailWriteQueue.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.database;
+
+import org.anonventions.globalPost.GlobalPost;
+import org.anonventions.globalPost.config.ConfigManager;
+import org.anonventions.globalPost.metrics.MetricsRegistry;
+import org.anonventions.globalPost.models.Mail;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Write‑behind buffer for mail INSERTs.
+ * – saveMail only enqueues; every mail gets its own completion future.
+ * – One flusher thread drains by size or time into a JDBC batch per transaction.
+ * – A failed batch is retried row by row so one bad mail can't sink the rest.
+ * – {@link #close()} flushes whatever is still queued (plugin disable).
+ */
+class MailWriteQueue {
+
+    static final Sql<Integer> INSERT = Sql.update("""
+        INSERT INTO mails (sender_uuid,sender_name,recipient_uuid,recipient_name,
+                           source_server,destination_server,destination_key,items,item_data,item_count,message)
+        VALUES (?,?,?,?,?,?,?,'',?,?,?)
+    """);
+
+    private record Pending(Mail mail, byte[] items, CompletableFuture<Boolean> result) {}
+
+    private final GlobalPost                    plugin;
+    private final DatabaseManager               db;
+    private final BlockingQueue<Pending>        queue;
+    private final ScheduledExecutorService      flusher;
+    private final Object                        flushLock = new Object();
+    private final int                           batchSize;
+    private final MetricsRegistry.Histogram     batchSizes;
+
+    MailWriteQueue(GlobalPost plugin, DatabaseManager db) {
+        ConfigManager cfg = plugin.getConfigManager();
+        this.plugin    = plugin;
+        this.db        = db;
+        this.batchSize = cfg.getWriteBatchSize();
+        this.queue     = new LinkedBlockingQueue<>(cfg.getWriteMaxPending());
+        this.flusher   = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "GlobalPost-MailWriter");
+            t.setDaemon(true);
+            return t;
+        });
+
+        MetricsRegistry metrics = plugin.getMetrics();
+        this.batchSizes = metrics.histogram("write_batch_size", "Mails per write-behind transaction",
+                new double[] {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000}).get();
+        metrics.gauge("write_queue_depth", "Mails waiting for the next write-behind flush", queue::size);
+
+        long interval = cfg.getWriteFlushIntervalMs();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /*------------------------------------------------------------------------*/
+    /** Serialises on the calling thread and queues the insert; a full queue fails the future. */
+    CompletableFuture<Boolean> enqueue(Mail mail) {
+        byte[] items;
+        try { items = ItemSerializer.serializeItems(mail.getItems(), db.itemCodec()); }
+        catch (RuntimeException ex) { return CompletableFuture.failedFuture(ex); }
+        return enqueue(mail, items);
+    }
+
+    /** Queues the insert of a mail whose items were already serialised. */
+    CompletableFuture<Boolean> enqueue(Mail mail, byte[] items) {
+        Pending p = new Pending(mail, items, new CompletableFuture<>());
+        if (!queue.offer(p))
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Mail write queue is full"));
+
+        if (queue.size() >= batchSize) {
+            try { flusher.execute(this::flushQuietly); }
+            catch (RejectedExecutionException ignored) { /* closing; close() drains the queue */ }
+        }
+        return p.result();
+    }
+
+    int size() { return queue.size(); }
+
+    /**
+     * Bulk path: inserts {@code mails} sharing one pre‑serialised payload in a
+     * single transaction, bypassing the queue. Returns the number of rows written.
+     */
+    int insertBatch(Session s, List<Mail> mails, byte[] items) throws SQLException {
+        List<Object[]> rows = new ArrayList<>(mails.size());
+        for (Mail mail : mails) rows.add(params(mail, items));
+        return s.transaction(tx -> INSERT.batch(tx, rows));
+    }
+
+    /** Stops the timer and writes everything still queued on the calling thread. */
+    void close() {
+        flusher.shutdown();
+        try { flusher.awaitTermination(5, TimeUnit.SECONDS); }
+        catch (InterruptedException ex) { Thread.currentThread().interrupt(); }
+        flushQuietly();
+        if (!queue.isEmpty())
+            plugin.getLogger().severe(queue.size() + " queued mail(s) could not be written on shutdown");
+    }
+
+    /*------------------------------------------------------------------------*/
+    private void flushQuietly() {
+        try { flush(); }
+        catch (RuntimeException ex) { plugin.getLogger().severe("Mail write flush failed: " + ex); }
+    }
+
+    private void flush() {
+        synchronized (flushLock) {
+            List<Pending> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<Pending> batch) {
+        long start = System.nanoTime();
+        batchSizes.observe(batch.size());
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Pending p : batch) rows.add(params(p.mail(), p.items()));
+
+        try (Session s = db.writeSession()) {
+            try { s.transaction(tx -> INSERT.batch(tx, rows)); }
+            catch (SQLException ex) {
+                plugin.getLogger().warning("Batch insert of " + batch.size() + " mail(s) failed, retrying singly: " + ex);
+                writeSingly(s, batch, rows);
+                return;
+            }
+            finally { db.timed("saveMail", start); }
+            batch.forEach(p -> p.result().complete(true));
+        }
+        catch (SQLException ex) {
+            db.failed("saveMail", ex);
+            batch.forEach(p -> p.result().complete(false));
+        }
+    }
+
+    private void writeSingly(Session s, List<Pending> batch, List<Object[]> rows) {
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                batch.get(i).result().complete(INSERT.run(s, rows.get(i)) > 0);
+            }
+            catch (SQLException ex) {
+                db.failed("saveMail", ex);
+                batch.get(i).result().complete(false);
+            }
+        }
+    }
+
+    /** Bind values for {@link #INSERT}. */
+    private Object[] params(Mail mail, byte[] items) {
+        return new Object[] {
+                mail.getSenderUUID().toString(), mail.getSenderName(),
+                mail.getRecipientUUID().toString(), mail.getRecipientName(),
+                mail.getSourceServer(), mail.getDestinationServer(),
+                plugin.getConfigManager().normalised(mail.getDestinationServer()),
+                items, mail.getItemCount(), mail.getMessage()
+        };
+    }
+}
@@ -0,0 +1,275 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/database/SchemaMigrator.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.database;
+
+import org.anonventions.globalPost.GlobalPost;
+
+import java.sql.*;
+import java.util.List;
+
+/**
+ * Forward‑only, versioned schema upgrades.
+ * – The applied version is kept in schema_version; each step runs once.
+ * – Steps are append‑only: never edit a released step, add a new one.
+ * – MySQL commits DDL implicitly, so every step must be safe to re‑run
+ *   if the server dies between the DDL and the version insert.
+ */
+class SchemaMigrator {
+
+    @FunctionalInterface
+    private interface Migration { void apply(Connection c) throws SQLException; }
+
+    private record Step(int version, String description, Migration migration) {}
+
+    /** Rows touched per UPDATE while back‑filling, keeps MySQL lock times short. */
+    private static final int BACKFILL_CHUNK = 10_000;
+
+    private final GlobalPost plugin;
+    private final Dialect    dialect;
+    private final List<Step> steps = List.of(
+            new Step(1, "create mails table",                      this::createMails),
+            new Step(2, "canonical destination_key + mailbox index", this::addDestinationKey),
+            new Step(3, "binary item_data column",                 this::addItemData),
+            new Step(4, "item_count column for mail headers",      this::addItemCount),
+            new Step(5, "collect_journal for crash recovery",      this::createCollectJournal),
+            new Step(6, "mails_archive + sweeper index",           this::createArchive),
+            new Step(7, "player_names directory",                  this::createPlayerNames)
+    );
+
+    SchemaMigrator(GlobalPost plugin, Dialect dialect) {
+        this.plugin  = plugin;
+        this.dialect = dialect;
+    }
+
+    /*------------------------------------------------------------------------*/
+    void migrate(Connection c) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                  version     INTEGER      PRIMARY KEY,
+                  description VARCHAR(128) NOT NULL,
+                  applied_at  TIMESTAMP    DEFAULT CURRENT_TIMESTAMP
+                )""");
+        }
+
+        int current = currentVersion(c);
+        for (Step step : steps) {
+            if (step.version() <= current) continue;
+
+            boolean auto = c.getAutoCommit();
+            c.setAutoCommit(false);
+            try {
+                step.migration().apply(c);
+                try (PreparedStatement ps = c.prepareStatement(
+                        "INSERT INTO schema_version (version, description) VALUES (?,?)")) {
+                    ps.setInt(1, step.version());
+                    ps.setString(2, step.description());
+                    ps.executeUpdate();
+                }
+                c.commit();
+            }
+            catch (SQLException ex) {
+                c.rollback();
+                throw new SQLException("Schema migration v" + step.version() + " failed: " + ex.getMessage(), ex);
+            }
+            finally { c.setAutoCommit(auto); }
+
+            plugin.getLogger().info("Schema upgraded to v" + step.version() + " (" + step.description() + ")");
+        }
+    }
+
+    private int currentVersion(Connection c) throws SQLException {
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /*------------------------------------------------------------------------*/
+    private void createMails(Connection c) throws SQLException {
+        String sql = """
+            CREATE TABLE IF NOT EXISTS mails (
+              id INTEGER PRIMARY KEY %s,
+              sender_uuid        VARCHAR(36) NOT NULL,
+              sender_name        VARCHAR(16) NOT NULL,
+              recipient_uuid     VARCHAR(36) NOT NULL,
+              recipient_name     VARCHAR(16) NOT NULL,
+              source_server      VARCHAR(32) NOT NULL,
+              destination_server VARCHAR(32) NOT NULL,
+              items              TEXT        NOT NULL,
+              message            TEXT,
+              sent_at            TIMESTAMP   DEFAULT CURRENT_TIMESTAMP,
+              collected          BOOLEAN     DEFAULT 0,
+              collected_at       TIMESTAMP   NULL
+            )""".formatted(dialect.autoIncrement());
+
+        try (Statement st = c.createStatement()) { st.execute(sql); }
+    }
+
+    /** Stores the canonical name so lookups no longer need LOWER(), then indexes the mailbox path. */
+    private void addDestinationKey(Connection c) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            if (!hasColumn(c, "mails", "destination_key"))
+                st.execute("ALTER TABLE mails ADD COLUMN destination_key VARCHAR(32) NOT NULL DEFAULT ''");
+        }
+
+        long maxId;
+        try (Statement st = c.createStatement(); ResultSet rs = st.executeQuery("SELECT MAX(id) FROM mails")) {
+            maxId = rs.next() ? rs.getLong(1) : 0;
+        }
+        try (PreparedStatement ps = c.prepareStatement(
+                "UPDATE mails SET destination_key = LOWER(TRIM(destination_server)) WHERE id > ? AND id <= ?")) {
+            for (long from = 0; from < maxId; from += BACKFILL_CHUNK) {
+                ps.setLong(1, from);
+                ps.setLong(2, from + BACKFILL_CHUNK);
+                ps.executeUpdate();
+                c.commit(); // release row locks per chunk; the step is idempotent
+            }
+        }
+
+        if (!hasIndex(c, "mails", "idx_mails_mailbox"))
+            try (Statement st = c.createStatement()) {
+                st.execute("CREATE INDEX idx_mails_mailbox ON mails (recipient_uuid, destination_key, collected, sent_at)");
+            }
+    }
+
+    /** Binary item payloads; legacy rows keep their Base64 in items until re‑encoded. */
+    private void addItemData(Connection c) throws SQLException {
+        if (hasColumn(c, "mails", "item_data")) return;
+        try (Statement st = c.createStatement()) {
+            st.execute("ALTER TABLE mails ADD COLUMN item_data " + dialect.blobType() + " NULL");
+        }
+    }
+
+    /**
+     * Header listings show the count without decoding items. Only unread rows
+     * are back‑filled; both formats store the count up front, so no NBT is decoded.
+     */
+    private void addItemCount(Connection c) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            if (!hasColumn(c, "mails", "item_count"))
+                st.execute("ALTER TABLE mails ADD COLUMN item_count INTEGER NOT NULL DEFAULT 0");
+        }
+
+        long afterId = 0;
+        try (PreparedStatement select = c.prepareStatement(
+                     "SELECT id, items, item_data FROM mails WHERE id > ? AND collected = 0 ORDER BY id LIMIT " + BACKFILL_CHUNK);
+             PreparedStatement update = c.prepareStatement("UPDATE mails SET item_count = ? WHERE id = ?")) {
+            while (true) {
+                select.setLong(1, afterId);
+                int rows = 0;
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        rows++;
+                        afterId = rs.getLong("id");
+                        byte[] blob = rs.getBytes("item_data");
+                        int count;
+                        try {
+                            count = blob != null ? ItemSerializer.countItems(blob)
+                                                 : ItemSerializer.countLegacyItems(rs.getString("items"));
+                        }
+                        catch (RuntimeException ex) {
+                            plugin.getLogger().warning("item_count back‑fill: mail " + afterId + " unreadable, leaving 0");
+                            continue;
+                        }
+                        update.setInt(1, count);
+                        update.setLong(2, afterId);
+                        update.addBatch();
+                    }
+                }
+                update.executeBatch();
+                c.commit();
+                if (rows < BACKFILL_CHUNK) break;
+            }
+        }
+    }
+
+    /** One row per claimed mail whose items may not be persisted in player data yet. */
+    private void createCollectJournal(Connection c) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS collect_journal (
+                  mail_id     INTEGER     PRIMARY KEY,
+                  player_uuid VARCHAR(36) NOT NULL,
+                  server      VARCHAR(32) NOT NULL,
+                  state       VARCHAR(8)  NOT NULL,
+                  claimed_at  TIMESTAMP   DEFAULT CURRENT_TIMESTAMP
+                )""");
+        }
+        if (!hasIndex(c, "collect_journal", "idx_collect_journal_server"))
+            try (Statement st = c.createStatement()) {
+                st.execute("CREATE INDEX idx_collect_journal_server ON collect_journal (server)");
+            }
+    }
+
+    /**
+     * Target of the MailSweeper. The index serves both sweeps: collected rows
+     * by collected_at, and unread rows (collected_at NULL) by sent_at.
+     */
+    private void createArchive(Connection c) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS mails_archive (
+                  id                 INTEGER     PRIMARY KEY,
+                  sender_uuid        VARCHAR(36) NOT NULL,
+                  sender_name        VARCHAR(16) NOT NULL,
+                  recipient_uuid     VARCHAR(36) NOT NULL,
+                  recipient_name     VARCHAR(16) NOT NULL,
+                  source_server      VARCHAR(32) NOT NULL,
+                  destination_key    VARCHAR(32) NOT NULL,
+                  items              TEXT        NOT NULL,
+                  item_data          %s          NULL,
+                  item_count         INTEGER     NOT NULL DEFAULT 0,
+                  message            TEXT,
+                  sent_at            TIMESTAMP   NULL,
+                  collected_at       TIMESTAMP   NULL,
+                  reason             VARCHAR(9)  NOT NULL,
+                  archived_at        TIMESTAMP   DEFAULT CURRENT_TIMESTAMP
+                )""".formatted(dialect.blobType()));
+        }
+        if (!hasIndex(c, "mails", "idx_mails_sweep"))
+            try (Statement st = c.createStatement()) {
+                st.execute("CREATE INDEX idx_mails_sweep ON mails (collected, collected_at, sent_at)");
+            }
+    }
+
+    /**
+     * Name → UUID directory learned from joins on every server. Seeded from the
+     * senders of existing mail, whose UUIDs came from a real login.
+     */
+    private void createPlayerNames(Connection c) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS player_names (
+                  uuid        VARCHAR(36) PRIMARY KEY,
+                  name        VARCHAR(16) NOT NULL,
+                  name_key    VARCHAR(16) NOT NULL,
+                  last_server VARCHAR(32) NULL,
+                  last_seen   TIMESTAMP   DEFAULT CURRENT_TIMESTAMP
+                )""");
+        }
+        if (!hasIndex(c, "player_names", "idx_player_names_key"))
+            try (Statement st = c.createStatement()) {
+                st.execute("CREATE INDEX idx_player_names_key ON player_names (name_key, last_seen)");
+            }
+        try (Statement st = c.createStatement()) {
+            st.execute(dialect.insertIgnore() + """
+                 INTO player_names (uuid, name, name_key, last_seen)
+                SELECT sender_uuid, MAX(sender_name), LOWER(MAX(sender_name)), MAX(sent_at)
+                FROM mails GROUP BY sender_uuid""");
+        }
+    }
+
+    /*------------------------------------------------------------------------*/
+    private static boolean hasColumn(Connection c, String table, String column) throws SQLException {
+        try (ResultSet rs = c.getMetaData().getColumns(c.getCatalog(), null, table, column)) { return rs.next(); }
+    }
+
+    private static boolean hasIndex(Connection c, String table, String index) throws SQLException {
+        try (ResultSet rs = c.getMetaData().getIndexInfo(c.getCatalog(), null, table, false, false)) {
+            while (rs.next()) if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) return true;
+        }
+        return false;
+    }
+}
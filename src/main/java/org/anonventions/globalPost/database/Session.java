@@ -0,0 +1,84 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/database/Session.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One pooled connection checked out for a unit of work; {@link Sql} statements
+ * run against it. Closing hands the connection back to the pool.
+ * – Without a {@link StatementCache} (MySQL), statements are prepared through
+ *   the pool's proxy, so the pool still sees SQL errors and retires broken
+ *   connections. One text is prepared once per session; closing the session
+ *   closes them (the driver keeps them in its own per‑connection cache, see
+ *   pool.statement_cache_size).
+ * – With one (SQLite), statements come from the cache for the physical
+ *   connection and stay open when the session closes.
+ * – {@link #transaction(Work)} commits on success and rolls back on any
+ *   exception, so no caller handles autocommit by hand.
+ */
+final class Session implements AutoCloseable {
+
+    @FunctionalInterface
+    interface Work<T> { T run(Session s) throws SQLException; }
+
+    private final Connection     connection;  // pool proxy
+    private final SlowQueryLog   slowLog;
+    private final StatementCache cache;       // null: prepare per session
+    private       Connection     physical;    // unwrapped lazily for the cache
+    private final Map<String, PreparedStatement> prepared = new HashMap<>(4);
+
+    Session(Connection connection, SlowQueryLog slowLog, StatementCache cache) {
+        this.connection = connection;
+        this.slowLog    = slowLog;
+        this.cache      = cache;
+    }
+
+    PreparedStatement prepare(String sql) throws SQLException {
+        if (cache != null) return cache.prepare(physical(), sql);
+        PreparedStatement ps = prepared.get(sql);
+        if (ps == null) prepared.put(sql, ps = connection.prepareStatement(sql));
+        return ps;
+    }
+
+    /** The statement for {@code sql} failed; a cached one is closed instead of reused. */
+    void discard(String sql) {
+        if (cache != null && physical != null) cache.discard(physical, sql);
+    }
+
+    private Connection physical() throws SQLException {
+        if (physical == null) physical = connection.unwrap(Connection.class);
+        return physical;
+    }
+
+    <T> T transaction(Work<T> work) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            T result = work.run(this);
+            connection.commit();
+            return result;
+        }
+        catch (SQLException | RuntimeException ex) {
+            connection.rollback();
+            throw ex;
+        }
+        finally { connection.setAutoCommit(true); }
+    }
+
+    void record(String sql, Object[] params, long rows, long nanos) {
+        slowLog.record(connection, sql, params, rows, nanos);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            for (PreparedStatement ps : prepared.values()) ps.close();
+        }
+        finally { connection.close(); }
+    }
+}
@@ -0,0 +1,125 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/database/SlowQueryLog.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.database;
+
+import org.anonventions.globalPost.GlobalPost;
+import org.anonventions.globalPost.config.ConfigSnapshot;
+import org.anonventions.globalPost.metrics.MetricsRegistry;
+
+import java.sql.*;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Logs statements slower than database.slow_query.threshold_ms.
+ * – Each entry carries the SQL, its bind parameters (UUIDs masked when
+ *   redact_uuids is on), the rows read or written, and the elapsed time.
+ * – With explain on, the first slow run of each statement shape also logs the
+ *   plan (EXPLAIN QUERY PLAN on SQLite, EXPLAIN on MySQL), run on the same
+ *   connection with the same parameters, so a missing index shows up at once.
+ * – Settings are read per call, so /post reload applies them.
+ */
+class SlowQueryLog {
+
+    private static final Pattern UUID_TEXT  = Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+    private static final Pattern IN_LIST    = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int     MAX_PARAM  = 64;
+
+    private final GlobalPost              plugin;
+    private final Dialect                 dialect;
+    private final Set<String>             explained = ConcurrentHashMap.newKeySet();
+    private final MetricsRegistry.Counter slowQueries;
+
+    SlowQueryLog(GlobalPost plugin, Dialect dialect) {
+        this.plugin      = plugin;
+        this.dialect     = dialect;
+        this.slowQueries = plugin.getMetrics().counter("db_slow_queries_total",
+                "Statements over database.slow_query.threshold_ms").get();
+    }
+
+    /** True if a statement that took {@code nanos} should be logged. */
+    boolean isSlow(long nanos) {
+        long threshold = plugin.getConfigManager().snapshot().getSlowQueryThresholdMs();
+        return threshold > 0 && nanos >= threshold * 1_000_000;
+    }
+
+    /**
+     * Call after the statement ran, while {@code c} is still open.
+     * @param params bind values in order, or null for a batch
+     * @param rows   rows read (SELECT) or changed
+     */
+    void record(Connection c, String sql, Object[] params, long rows, long nanos) {
+        if (!isSlow(nanos)) return;
+        slowQueries.inc();
+
+        ConfigSnapshot cfg = plugin.getConfigManager().snapshot();
+        String shape = shape(sql);
+        StringBuilder msg = new StringBuilder("Slow query: ")
+                .append(nanos / 1_000_000).append("ms, ").append(rows).append(" row(s)")
+                .append("\n  SQL: ").append(shape)
+                .append("\n  Params: ").append(params == null ? "(batch)" : describe(params, cfg.isSlowQueryRedactUuids()));
+
+        if (cfg.isSlowQueryExplain() && params != null && explained.add(shape)) {
+            msg.append("\n  Plan:");
+            try { explain(c, sql, params, msg); }
+            catch (SQLException ex) { msg.append(" unavailable (").append(ex.getMessage()).append(')'); }
+        }
+        plugin.getLogger().warning(msg.toString());
+    }
+
+    /*------------------------------------------------------------------------*/
+    private void explain(Connection c, String sql, Object[] params, StringBuilder out) throws SQLException {
+        String trimmed = sql.strip();
+        if (trimmed.regionMatches(true, 0, "INSERT", 0, 6)) { out.append(" (not available for INSERT)"); return; }
+
+        try (PreparedStatement ps = c.prepareStatement(dialect.explain() + trimmed)) {
+            Sql.bind(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                int detail = column(meta, "detail");
+                while (rs.next()) {
+                    out.append("\n    ");
+                    if (detail > 0) { out.append(rs.getString(detail)); continue; } // SQLite: one line per step
+                    StringJoiner row = new StringJoiner(" ");                   // MySQL: one row per table
+                    for (int i = 1; i <= meta.getColumnCount(); i++) {
+                        String v = rs.getString(i);
+                        if (v != null) row.add(meta.getColumnLabel(i) + "=" + v);
+                    }
+                    out.append(row);
+                }
+            }
+        }
+    }
+
+    private static int column(ResultSetMetaData meta, String label) throws SQLException {
+        for (int i = 1; i <= meta.getColumnCount(); i++)
+            if (meta.getColumnLabel(i).equalsIgnoreCase(label)) return i;
+        return 0;
+    }
+
+    /** Whitespace collapsed and IN (?,?,…) lists folded, so varying list sizes share one shape. */
+    static String shape(String sql) {
+        String s = WHITESPACE.matcher(sql.strip()).replaceAll(" ");
+        return IN_LIST.matcher(s).replaceAll("(?…)");
+    }
+
+    private static String describe(Object[] params, boolean redactUuids) {
+        StringJoiner out = new StringJoiner(", ", "[", "]");
+        for (Object p : params) {
+            if (p == null)                  out.add("NULL");
+            else if (p instanceof byte[] b) out.add("<" + b.length + " bytes>");
+            else if (p instanceof UUID id)  out.add(redactUuids ? "<uuid>" : '"' + id.toString() + '"');
+            else if (p instanceof String s) {
+                if (redactUuids && UUID_TEXT.matcher(s).matches()) out.add("<uuid>");
+                else out.add('"' + (s.length() > MAX_PARAM ? s.substring(0, MAX_PARAM) + "…" : s) + '"');
+            }
+            else out.add(String.valueOf(p));
+        }
+        return out.toString();
+    }
+}
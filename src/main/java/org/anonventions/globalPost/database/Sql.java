@@ -0,0 +1,145 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/database/Sql.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.database;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * One SQL statement, typed by what running it returns.
+ * <pre>
+ * Sql&lt;List&lt;Integer&gt;&gt;     ids   = Sql.list("SELECT id FROM mails WHERE ...", rs -> rs.getInt(1));
+ * Sql&lt;Optional&lt;Integer&gt;&gt; count = Sql.first("SELECT COUNT(*) FROM mails WHERE ...", rs -> rs.getInt(1));
+ * Sql&lt;Integer&gt;           marks = Sql.update("UPDATE ... WHERE id = ?");
+ * int changed = marks.run(session, id);
+ * </pre>
+ * – Defined once (usually as constants), run against a {@link Session}, which
+ *   supplies the PreparedStatement for the text.
+ * – Parameters bind by position from String, Integer, Long, UUID, byte[] or null.
+ * – Every run is timed and reported to the SlowQueryLog; result sets are
+ *   always closed and parameters cleared before run returns, so a cached
+ *   statement doesn't keep item blobs alive; one that failed is discarded.
+ */
+final class Sql<R> {
+
+    @FunctionalInterface
+    interface RowMapper<T> { T map(ResultSet rs) throws SQLException; }
+
+    private enum Kind { LIST, FIRST, UPDATE }
+
+    private final String       sql;
+    private final Kind         kind;
+    private final RowMapper<?> mapper;
+
+    private Sql(String sql, Kind kind, RowMapper<?> mapper) {
+        this.sql    = sql;
+        this.kind   = kind;
+        this.mapper = mapper;
+    }
+
+    /** Every row, mapped. */
+    static <T> Sql<List<T>> list(String sql, RowMapper<T> mapper)      { return new Sql<>(sql, Kind.LIST, mapper); }
+
+    /** The first row, mapped, or empty; further rows are not read. */
+    static <T> Sql<Optional<T>> first(String sql, RowMapper<T> mapper) { return new Sql<>(sql, Kind.FIRST, mapper); }
+
+    /** INSERT/UPDATE/DELETE; returns the rows changed. */
+    static Sql<Integer> update(String sql)                              { return new Sql<>(sql, Kind.UPDATE, null); }
+
+    String text() { return sql; }
+
+    /*------------------------------------------------------------------------*/
+    @SuppressWarnings("unchecked")
+    R run(Session session, Object... params) throws SQLException {
+        PreparedStatement ps = session.prepare(sql);
+        bind(ps, params);
+
+        long start = System.nanoTime();
+        Object result;
+        long   rows;
+        try {
+            if (kind == Kind.UPDATE) {
+                int changed = ps.executeUpdate();
+                result = changed;
+                rows   = changed;
+            }
+            else try (ResultSet rs = ps.executeQuery()) {
+                if (kind == Kind.FIRST) {
+                    result = rs.next() ? Optional.of(mapper.map(rs)) : Optional.empty();
+                    rows   = ((Optional<?>) result).isPresent() ? 1 : 0;
+                }
+                else {
+                    List<Object> list = new ArrayList<>();
+                    while (rs.next()) list.add(mapper.map(rs));
+                    result = list;
+                    rows   = list.size();
+                }
+            }
+        }
+        catch (SQLException | RuntimeException ex) {
+            session.discard(sql); // a failed statement is never reused from the cache
+            throw ex;
+        }
+        ps.clearParameters();
+        session.record(sql, params, rows, System.nanoTime() - start);
+        return (R) result;
+    }
+
+    /** An update run once per parameter row in one JDBC batch; returns the rows given. */
+    int batch(Session session, List<Object[]> rows) throws SQLException {
+        if (kind != Kind.UPDATE) throw new IllegalStateException("Only updates can be batched: " + sql);
+        if (rows.isEmpty()) return 0;
+
+        PreparedStatement ps = session.prepare(sql);
+        long start = System.nanoTime();
+        try {
+            for (Object[] params : rows) {
+                bind(ps, params);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            ps.clearParameters();
+        }
+        catch (SQLException | RuntimeException ex) {
+            ps.clearBatch(); // the statement may be reused in this session; don't leave rows behind
+            session.discard(sql);
+            throw ex;
+        }
+        session.record(sql, null, rows.size(), System.nanoTime() - start);
+        return rows.size();
+    }
+
+    static void bind(PreparedStatement ps, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            Object p = params[i];
+            if (p instanceof String s)       ps.setString(i + 1, s);
+            else if (p instanceof Integer n) ps.setInt(i + 1, n);
+            else if (p instanceof Long n)    ps.setLong(i + 1, n);
+            else if (p instanceof UUID id)   ps.setString(i + 1, id.toString());
+            else if (p instanceof byte[] b)  ps.setBytes(i + 1, b);
+            else if (p == null)              ps.setNull(i + 1, Types.VARCHAR);
+            else throw new IllegalArgumentException("Unsupported parameter type " + p.getClass().getSimpleName());
+        }
+    }
+
+    /** "?,?,?" for an IN list of {@code n} values; pad the values with {@link #padIn(List)} first. */
+    static String placeholders(int n) { return String.join(",", Collections.nCopies(n, "?")); }
+
+    private static final int[] IN_SIZES = {1, 4, 16, 64, 256};
+
+    /**
+     * {@code values} (not empty) padded to the next of a few fixed sizes by
+     * repeating the last one, which doesn't change what IN matches. A driver's
+     * statement cache then holds a handful of IN texts instead of one per length.
+     */
+    static List<Object> padIn(List<?> values) {
+        int n = values.size(), size = 0;
+        for (int s : IN_SIZES) if (s >= n) { size = s; break; }
+        if (size == 0) size = (n + 255) / 256 * 256;
+        List<Object> padded = new ArrayList<>(size);
+        padded.addAll(values);
+        while (padded.size() < size) padded.add(values.get(n - 1));
+        return padded;
+    }
+}
@@ -0,0 +1,120 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/database/StatementCache.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.database;
+
+import org.anonventions.globalPost.metrics.MetricsRegistry;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SQLite's prepared statements kept open per physical connection
+ * (pool.statement_cache_size). MySQL leaves this to Connector/J instead.
+ * – Hikari closes every statement made through its proxy when the connection
+ *   goes back to the pool, so these are prepared on the unwrapped driver
+ *   connection and survive between checkouts.
+ * – A statement that failed is closed and dropped rather than reused; SQLite
+ *   is an in‑process file, so there is no network failure for the pool to
+ *   notice, and it still validates connections on checkout.
+ * – Past the limit, a connection's least recently used statement is closed.
+ * – Connections the pool retired (max lifetime) are dropped with their
+ *   statements whenever a new connection turns up.
+ */
+class StatementCache {
+
+    private final int                         maxPerConnection;
+    private final Map<Connection, Statements> byConnection = new ConcurrentHashMap<>();
+    private final MetricsRegistry.Counter     hits, misses;
+
+    StatementCache(int maxPerConnection, MetricsRegistry metrics) {
+        this.maxPerConnection = maxPerConnection;
+        MetricsRegistry.Family<MetricsRegistry.Counter> lookups = metrics.counter("db_statement_cache_total",
+                "Statement lookups served from the per-connection cache (hit) or prepared anew (miss)", "result");
+        this.hits   = lookups.labels("hit");
+        this.misses = lookups.labels("miss");
+        metrics.gauge("db_statements_cached", "Prepared statements held open across all connections",
+                () -> byConnection.values().stream().mapToInt(Statements::size).sum());
+    }
+
+    /** @param physical the driver connection, never a pool proxy */
+    PreparedStatement prepare(Connection physical, String sql) throws SQLException {
+        Statements statements = byConnection.get(physical);
+        if (statements == null) {
+            dropClosed();
+            statements = byConnection.computeIfAbsent(physical, c -> new Statements());
+        }
+        return statements.get(physical, sql);
+    }
+
+    /** Closes and forgets the statement for {@code sql} after it failed. */
+    void discard(Connection physical, String sql) {
+        Statements statements = byConnection.get(physical);
+        if (statements != null) statements.discard(sql);
+    }
+
+    /** Closes every cached statement; call before the pools close. */
+    void close() {
+        byConnection.values().forEach(Statements::closeAll);
+        byConnection.clear();
+    }
+
+    /*------------------------------------------------------------------------*/
+    private void dropClosed() {
+        byConnection.entrySet().removeIf(e -> {
+            try {
+                if (!e.getKey().isClosed()) return false;
+            }
+            catch (SQLException ignored) { /* treat as gone */ }
+            e.getValue().closeAll();
+            return true;
+        });
+    }
+
+    /** One connection's statements, in access order. Locked only against close() and the gauge. */
+    private final class Statements extends LinkedHashMap<String, PreparedStatement> {
+
+        Statements() { super(16, 0.75f, true); }
+
+        synchronized PreparedStatement get(Connection physical, String sql) throws SQLException {
+            PreparedStatement ps = super.get(sql);
+            if (ps != null && !ps.isClosed()) {
+                hits.inc();
+                return ps;
+            }
+            misses.inc();
+            ps = physical.prepareStatement(sql);
+            put(sql, ps);
+            return ps;
+        }
+
+        synchronized void discard(String sql) {
+            PreparedStatement ps = remove(sql);
+            if (ps != null) closeQuietly(ps);
+        }
+
+        @Override
+        public synchronized int size() { return super.size(); }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+            if (size() <= maxPerConnection) return false;
+            closeQuietly(eldest.getValue());
+            return true;
+        }
+
+        synchronized void closeAll() {
+            values().forEach(StatementCache::closeQuietly);
+            clear();
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement ps) {
+        try { ps.close(); }
+        catch (SQLException ignored) { /* the connection is likely gone already */ }
+    }
+}
@@ -0,0 +1,47 @@
+package org.anonventions.globalPost.gui;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.List;
+
+/**
+ * The fixed icons of the mailbox and send GUIs, built by the first GUI that
+ * opens and handed out as copies. ItemMeta is only touched on the main thread,
+ * where every GUI is built.
+ */
+public final class GuiTemplates {
+
+    private record Icons(ItemStack border, ItemStack cancel, ItemStack noMail, ItemStack sendMail, ItemStack refresh) {}
+
+    private static Icons icons; // main thread only
+
+    private GuiTemplates() {}
+
+    static ItemStack border()   { return icons().border().clone(); }
+    static ItemStack cancel()   { return icons().cancel().clone(); }
+    static ItemStack noMail()   { return icons().noMail().clone(); }
+    static ItemStack sendMail() { return icons().sendMail().clone(); }
+    static ItemStack refresh()  { return icons().refresh().clone(); }
+
+    private static Icons icons() {
+        Icons i = icons;
+        if (i == null) icons = i = new Icons(
+                icon(Material.GRAY_STAINED_GLASS_PANE, " "),
+                icon(Material.RED_WOOL,       "§c§lCancel",  "§7Click to cancel and return items"),
+                icon(Material.BARRIER,        "§cNo mail",   "§7You have no unread mail."),
+                icon(Material.WRITABLE_BOOK,  "§aSend Mail", "§7Click to send mail to another server"),
+                icon(Material.COMPASS,        "§bRefresh",   "§7Click to refresh your mailbox"));
+        return i;
+    }
+
+    private static ItemStack icon(Material type, String name, String... lore) {
+        ItemStack item = new ItemStack(type);
+        ItemMeta meta = item.getItemMeta();
+        meta.setDisplayName(name);
+        if (lore.length > 0) meta.setLore(List.of(lore));
+        item.setItemMeta(meta);
+        return item;
+    }
+}
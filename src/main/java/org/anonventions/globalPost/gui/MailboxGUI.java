@@ -1,7 +1,9 @@
 package org.anonventions.globalPost.gui;
 
 import org.anonventions.globalPost.GlobalPost;
+import org.anonventions.globalPost.managers.MailboxManager;
 import org.anonventions.globalPost.models.Mail;
+import org.anonventions.globalPost.models.MailPage;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -14,13 +16,26 @@ import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class MailboxGUI implements Listener {
 
+    private static final int SLOT_PREVIOUS = 48;
+    private static final int SLOT_SEND     = 49;
+    private static final int SLOT_NEXT     = 50;
+    private static final int SLOT_REFRESH  = 53;
+
     private final GlobalPost plugin;
     private final Player player;
     private final Inventory inventory;
-    private List<Mail> mails;
+    private List<Mail> mails = List.of();
+
+    // Keyset paging state, only touched on the main thread
+    private final List<MailPage.Cursor> previousPages = new ArrayList<>(); // start cursors of earlier pages (first is null)
+    private MailPage.Cursor pageStart;                                    // cursor this page was loaded after
+    private MailPage.Cursor nextCursor;                                   // null on the last page
+    private CompletableFuture<MailPage> prefetched;                        // background load of the next page
+    private MailPage.Cursor prefetchedFor;
 
     public MailboxGUI(GlobalPost plugin, Player player) {
         this.plugin = plugin;
@@ -31,65 +46,106 @@ public class MailboxGUI implements Listener {
         loadMails();
     }
 
+    /** Reloads the current page from the database. */
     private void loadMails() {
-        plugin.getMailboxManager().getPlayerMails(player.getUniqueId()).thenAccept(mailList -> {
-            this.mails = mailList;
-            Bukkit.getScheduler().runTask(plugin, this::updateInventory);
+        prefetched = null;
+        showPage(plugin.getMailboxManager().getPlayerMailPage(player.getUniqueId(), pageStart));
+    }
+
+    private void nextPage() {
+        if (nextCursor == null) return;
+        previousPages.add(pageStart);
+        pageStart = nextCursor;
+        boolean hit = prefetched != null && pageStart.equals(prefetchedFor);
+        showPage(hit ? prefetched : plugin.getMailboxManager().getPlayerMailPage(player.getUniqueId(), pageStart));
+        prefetched = null;
+    }
+
+    private void previousPage() {
+        if (previousPages.isEmpty()) return;
+        pageStart = previousPages.remove(previousPages.size() - 1);
+        loadMails();
+    }
+
+    private void showPage(CompletableFuture<MailPage> page) {
+        page.thenAccept(result -> Bukkit.getScheduler().runTask(plugin, () -> {
+            // Collecting the last mail of a later page leaves it empty; step back instead of showing nothing
+            if (result.mails().isEmpty() && !previousPages.isEmpty()) {
+                previousPage();
+                return;
+            }
+            this.mails = result.mails();
+            this.nextCursor = result.next();
+            updateInventory();
+            prefetchNext();
+        })).exceptionally(ex -> {
+            plugin.getAsyncExecutor().reportFailure(player, ex, "§cCould not load your mailbox.");
+            return null;
         });
     }
 
+    /** Loads the following page in the background so "next" usually opens instantly. */
+    private void prefetchNext() {
+        if (nextCursor == null || nextCursor.equals(prefetchedFor) && prefetched != null) return;
+        prefetchedFor = nextCursor;
+        prefetched = plugin.getMailboxManager().getPlayerMailPage(player.getUniqueId(), nextCursor);
+    }
+
     private void updateInventory() {
         inventory.clear();
 
         if (mails.isEmpty()) {
-            ItemStack noMail = new ItemStack(Material.BARRIER);
-            ItemMeta meta = noMail.getItemMeta();
-            meta.setDisplayName("§cNo mail");
-            meta.setLore(List.of("§7You have no unread mail."));
-            noMail.setItemMeta(meta);
-            inventory.setItem(22, noMail);
+            inventory.setItem(22, GuiTemplates.noMail());
             return;
         }
 
-        for (int i = 0; i < Math.min(mails.size(), 45); i++) {
-            Mail mail = mails.get(i);
-            ItemStack mailItem = new ItemStack(Material.PAPER);
-            ItemMeta meta = mailItem.getItemMeta();
+        for (int i = 0; i < Math.min(mails.size(), MailboxManager.PAGE_SIZE); i++) {
+            inventory.setItem(i, mailIcon(mails.get(i)));
+        }
 
-            meta.setDisplayName("§6Mail from " + mail.getSenderName());
+        // Add navigation and utility items
+        inventory.setItem(SLOT_SEND, GuiTemplates.sendMail());
 
-            List<String> lore = new ArrayList<>();
-            lore.add("§7From: §f" + mail.getSenderName());
-            lore.add("§7Server: §f" + mail.getSourceServer());
-            lore.add("§7Items: §f" + mail.getItems().size());
+        int page = previousPages.size() + 1;
+        if (!previousPages.isEmpty())
+            inventory.setItem(SLOT_PREVIOUS, navButton("§ePrevious Page", "§7Back to page " + (page - 1)));
+        if (nextCursor != null)
+            inventory.setItem(SLOT_NEXT, navButton("§eNext Page", "§7On to page " + (page + 1)));
 
-            if (mail.getMessage() != null && !mail.getMessage().trim().isEmpty()) {
-                lore.add("§7Message: §f" + mail.getMessage());
-            }
+        inventory.setItem(SLOT_REFRESH, GuiTemplates.refresh());
+    }
+
+    /** Listing icon for one mail header (package‑private for the benchmarks module). */
+    static ItemStack mailIcon(Mail mail) {
+        ItemStack mailItem = new ItemStack(Material.PAPER);
+        ItemMeta meta = mailItem.getItemMeta();
 
-            lore.add("");
-            lore.add("§aClick to collect!");
+        meta.setDisplayName("§6Mail from " + mail.getSenderName());
 
-            meta.setLore(lore);
-            mailItem.setItemMeta(meta);
+        List<String> lore = new ArrayList<>();
+        lore.add("§7From: §f" + mail.getSenderName());
+        lore.add("§7Server: §f" + mail.getSourceServer());
+        lore.add("§7Items: §f" + mail.getItemCount());
 
-            inventory.setItem(i, mailItem);
+        if (mail.getMessage() != null && !mail.getMessage().trim().isEmpty()) {
+            lore.add("§7Message: §f" + mail.getMessage());
         }
 
-        // Add navigation and utility items
-        ItemStack sendMail = new ItemStack(Material.WRITABLE_BOOK);
-        ItemMeta sendMeta = sendMail.getItemMeta();
-        sendMeta.setDisplayName("§aSend Mail");
-        sendMeta.setLore(List.of("§7Click to send mail to another server"));
-        sendMail.setItemMeta(sendMeta);
-        inventory.setItem(49, sendMail);
-
-        ItemStack refresh = new ItemStack(Material.COMPASS);
-        ItemMeta refreshMeta = refresh.getItemMeta();
-        refreshMeta.setDisplayName("§bRefresh");
-        refreshMeta.setLore(List.of("§7Click to refresh your mailbox"));
-        refresh.setItemMeta(refreshMeta);
-        inventory.setItem(53, refresh);
+        lore.add("");
+        lore.add("§aClick to collect!");
+
+        meta.setLore(lore);
+        mailItem.setItemMeta(meta);
+        return mailItem;
+    }
+
+    private static ItemStack navButton(String name, String lore) {
+        ItemStack arrow = new ItemStack(Material.ARROW);
+        ItemMeta meta = arrow.getItemMeta();
+        meta.setDisplayName(name);
+        meta.setLore(List.of(lore));
+        arrow.setItemMeta(meta);
+        return arrow;
     }
 
     public void open() {
@@ -101,6 +157,7 @@ public class MailboxGUI implements Listener {
         if (!event.getInventory().equals(inventory)) return;
 
         event.setCancelled(true);
+        if (event.getClickedInventory() != inventory) return; // slot numbers below refer to the top inventory
 
         if (!(event.getWhoClicked() instanceof Player)) return;
         Player clicker = (Player) event.getWhoClicked();
@@ -112,18 +169,21 @@ public class MailboxGUI implements Listener {
 
         int slot = event.getSlot();
 
-        if (slot == 49) { // Send mail
+        if (slot == SLOT_SEND) { // Send mail
             clicker.closeInventory();
             // Open server selection GUI or command
             clicker.sendMessage("§aUse /post send <server> [player] to send mail!");
             return;
         }
 
-        if (slot == 53) { // Refresh
+        if (slot == SLOT_REFRESH) { // Refresh
             loadMails();
             return;
         }
 
+        if (slot == SLOT_PREVIOUS) { previousPage(); return; }
+        if (slot == SLOT_NEXT)     { nextPage();     return; }
+
         if (slot < mails.size()) {
             Mail mail = mails.get(slot);
             collectMail(mail, clicker);
@@ -131,34 +191,26 @@ public class MailboxGUI implements Listener {
     }
 
     private void collectMail(Mail mail, Player player) {
-        // Check if player has enough inventory space
-        int requiredSlots = mail.getItems().size();
-        int availableSlots = 0;
-
-        for (ItemStack item : player.getInventory().getContents()) {
-            if (item == null || item.getType() == Material.AIR) {
-                availableSlots++;
-            }
-        }
-
-        if (availableSlots < requiredSlots) {
+        // Cheap pre-check on the header count; the authoritative check runs after the claim
+        if (MailboxManager.freeSlots(player) < mail.getItemCount()) {
             player.sendMessage("§cYou don't have enough inventory space to collect this mail!");
             return;
         }
 
-        // Give items to player
-        for (ItemStack item : mail.getItems()) {
-            player.getInventory().addItem(item);
-        }
-
-        // Mark as collected
-        plugin.getMailboxManager().collectMail(mail.getId(), player).thenAccept(success -> {
-            if (success) {
+        plugin.getMailboxManager().collect(mail, player).thenAccept(result ->
                 Bukkit.getScheduler().runTask(plugin, () -> {
-                    player.sendMessage("§aMail collected from " + mail.getSenderName() + "!");
+                    switch (result) {
+                        case COLLECTED -> player.sendMessage("§aMail collected from " + mail.getSenderName() + "!");
+                        case ALREADY_COLLECTED -> player.sendMessage("§cThat mail is no longer available.");
+                        case IN_PROGRESS -> { return; }
+                        case NO_SPACE -> player.sendMessage("§cYou don't have enough inventory space to collect this mail!");
+                        case FAILED -> player.sendMessage("§cCould not collect that mail, please try again.");
+                    }
                     loadMails(); // Refresh the GUI
-                });
-            }
+                })
+        ).exceptionally(ex -> {
+            plugin.getAsyncExecutor().reportFailure(player, ex, "§cCould not collect that mail.");
+            return null;
         });
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,8 @@
 package org.anonventions.globalPost.gui;
 
 import org.anonventions.globalPost.GlobalPost;
+import org.anonventions.globalPost.concurrent.AsyncExecutor;
+import org.anonventions.globalPost.managers.MailboxManager;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -8,13 +10,13 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 public class SendMailGUI implements Listener {
 
@@ -23,7 +25,8 @@ public class SendMailGUI implements Listener {
     private final String destinationServer;
     private final String recipientName;
     private final Inventory inventory;
-    private boolean isProcessing = false;
+    private boolean isProcessing = false; // a send is in flight: the mail slots are frozen
+    private boolean closed = false;       // the player closed the view; a failed send returns the items
 
     public SendMailGUI(GlobalPost plugin, Player player, String destinationServer, String recipientName) {
         this.plugin = plugin;
@@ -38,10 +41,7 @@ public class SendMailGUI implements Listener {
 
     private void setupGUI() {
         // Create border
-        ItemStack border = new ItemStack(Material.GRAY_STAINED_GLASS_PANE);
-        ItemMeta borderMeta = border.getItemMeta();
-        borderMeta.setDisplayName(" ");
-        border.setItemMeta(borderMeta);
+        ItemStack border = GuiTemplates.border();
 
         // Set border items
         for (int i = 0; i < 54; i++) {
@@ -64,12 +64,7 @@ public class SendMailGUI implements Listener {
         inventory.setItem(49, sendButton);
 
         // Cancel button
-        ItemStack cancelButton = new ItemStack(Material.RED_WOOL);
-        ItemMeta cancelMeta = cancelButton.getItemMeta();
-        cancelMeta.setDisplayName("§c§lCancel");
-        cancelMeta.setLore(List.of("§7Click to cancel and return items"));
-        cancelButton.setItemMeta(cancelMeta);
-        inventory.setItem(45, cancelButton);
+        inventory.setItem(45, GuiTemplates.cancel());
 
         // Info item
         ItemStack info = new ItemStack(Material.BOOK);
@@ -87,6 +82,30 @@ public class SendMailGUI implements Listener {
 
     public void open() {
         player.openInventory(inventory);
+        showRecipientStatus();
+    }
+
+    /** Asks the destination server whether it knows the recipient and shows the answer on the send button. */
+    private void showRecipientStatus() {
+        if (recipientName.equalsIgnoreCase(player.getName())) return;
+
+        plugin.getMessageHandler().getPlayerLookup().lookup(destinationServer, recipientName).thenAccept(result ->
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    String status = switch (result.status()) {
+                        case ONLINE  -> "§aonline";
+                        case OFFLINE -> "§7offline";
+                        case UNKNOWN -> "§enever joined " + destinationServer;
+                    };
+                    ItemStack button = inventory.getItem(49);
+                    if (button == null || button.getType() != Material.GREEN_WOOL) return;
+                    ItemMeta meta = button.getItemMeta();
+                    List<String> lore = meta.hasLore() ? new ArrayList<>(meta.getLore()) : new ArrayList<>();
+                    lore.add(Math.min(2, lore.size()), "§7Status: " + status);
+                    meta.setLore(lore);
+                    button.setItemMeta(meta);
+                    inventory.setItem(49, button);
+                })
+        ); // no answer (timeout, nobody online there) just leaves the button as it was
     }
 
     @EventHandler
@@ -98,6 +117,12 @@ public class SendMailGUI implements Listener {
 
         if (!clicker.equals(player)) return;
 
+        // The slots are being mailed; taking or adding anything now would duplicate or lose items
+        if (isProcessing) {
+            event.setCancelled(true);
+            return;
+        }
+
         int slot = event.getSlot();
 
         // Allow placing items in the mail area (slots 10-43, excluding borders)
@@ -143,6 +168,11 @@ public class SendMailGUI implements Listener {
         }
     }
 
+    @EventHandler
+    public void onInventoryDrag(InventoryDragEvent event) {
+        if (event.getInventory().equals(inventory) && isProcessing) event.setCancelled(true);
+    }
+
     @EventHandler
     public void onInventoryClose(InventoryCloseEvent event) {
         if (!event.getInventory().equals(inventory)) return;
@@ -151,7 +181,9 @@ public class SendMailGUI implements Listener {
         Player closer = (Player) event.getPlayer();
         if (!closer.equals(player)) return;
 
-        // Return items to player when closing without sending
+        // Return items to player when closing without sending; a send in flight
+        // keeps them in the slots until it completes (see onSendComplete)
+        closed = true;
         if (!isProcessing) {
             returnItems();
         }
@@ -184,70 +216,62 @@ public class SendMailGUI implements Listener {
 
         // Show processing message
         player.sendMessage("§eSending mail...");
+        // isProcessing stays set until onSendComplete, freezing the slots
 
-        // Send the mail asynchronously
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            try {
-                // Get or create recipient UUID
-                UUID recipientUUID = getRecipientUUID(recipientName);
-
-                // Create and send mail
-                boolean success = plugin.getMailboxManager().sendMailDirect(
-                        player.getUniqueId(),
-                        player.getName(),
-                        recipientUUID,
-                        recipientName,
-                        destinationServer,
-                        items,
-                        null
-                );
-
-                // Handle result on main thread
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    if (success) {
-                        player.sendMessage("§aMail sent successfully to " + recipientName + " on " + destinationServer + "!");
-
-                        // Clear the mail slots
-                        for (int i = 10; i <= 43; i++) {
-                            if (i % 9 != 0 && i % 9 != 8) {
-                                inventory.setItem(i, null);
-                            }
-                        }
-
-                        player.closeInventory();
-                    } else {
-                        player.sendMessage("§cFailed to send mail! Please try again.");
-                        isProcessing = false;
-                    }
+        // One future chain on the plugin executor; the outcome comes back to the main thread once
+        plugin.getMailboxManager().sendMail(player, recipientName, destinationServer, items, null)
+                .whenComplete((result, ex) -> {
+                    if (!plugin.isEnabled()) return;
+                    Bukkit.getScheduler().runTask(plugin, () -> onSendComplete(result, ex));
                 });
+    }
 
-            } catch (Exception e) {
-                plugin.getLogger().severe("Error sending mail: " + e.getMessage());
-                e.printStackTrace();
+    /**
+     * Main thread. The slots are only cleared once the mail is persisted; on any
+     * failure they unfreeze, or go back to the player if the view was closed.
+     */
+    private void onSendComplete(MailboxManager.SendResult result, Throwable ex) {
+        if (ex != null) {
+            if (!AsyncExecutor.isRejection(ex)) plugin.getLogger().severe("Error sending mail: " + ex);
+            player.sendMessage(AsyncExecutor.isRejection(ex) ? AsyncExecutor.BUSY_MESSAGE : "§cAn error occurred while sending mail!");
+            sendFailed();
+            return;
+        }
 
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    player.sendMessage("§cAn error occurred while sending mail!");
-                    isProcessing = false;
-                });
+        if (result == MailboxManager.SendResult.SENT) {
+            player.sendMessage("§aMail sent successfully to " + recipientName + " on " + destinationServer + "!");
+
+            // Clear the mail slots
+            for (int i = 10; i <= 43; i++) {
+                if (i % 9 != 0 && i % 9 != 8) {
+                    inventory.setItem(i, null);
+                }
             }
-        });
-    }
 
-    private UUID getRecipientUUID(String playerName) {
-        // Try to get UUID from online player first
-        Player onlinePlayer = Bukkit.getPlayer(playerName);
-        if (onlinePlayer != null) {
-            return onlinePlayer.getUniqueId();
+            if (!closed) player.closeInventory();
+        } else {
+            player.sendMessage(failureMessage(result));
+            sendFailed();
         }
+    }
 
-        // Try to get UUID from offline player
-        try {
-            return Bukkit.getOfflinePlayer(playerName).getUniqueId();
-        } catch (Exception e) {
-            plugin.getLogger().warning("Could not get UUID for player: " + playerName);
-            // Generate a random UUID as fallback (not ideal but prevents crashes)
-            return UUID.nameUUIDFromBytes(("OfflinePlayer:" + playerName).getBytes());
-        }
+    private void sendFailed() {
+        isProcessing = false;
+        if (!closed) return; // still open: the items stay in the slots for another try
+        if (!player.isOnline())
+            plugin.getLogger().warning(player.getName() + " logged out during a failed send; their mail items could not be returned");
+        returnItems();
+    }
+
+    private String failureMessage(MailboxManager.SendResult result) {
+        return switch (result) {
+            case QUOTA_EXCEEDED -> "§c" + recipientName + "'s mailbox on " + destinationServer + " is full ("
+                    + plugin.getConfigManager().getMaxMailsPerPlayer() + " unread mails). Try again once they collect some.";
+            case INVALID_DESTINATION -> "§cInvalid destination server: " + destinationServer;
+            case UNKNOWN_RECIPIENT -> "§cNo player named " + recipientName + " has joined the network.";
+            case BLACKLISTED -> "§cYour mail contains an item that cannot be sent!";
+            default -> "§cFailed to send mail! Please try again.";
+        };
     }
 
     private void returnItems() {
@@ -0,0 +1,64 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/io/Wire.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.io;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Binary primitives shared by the plugin‑message envelopes and the item
+ * payload codec: varints, varint‑prefixed UTF‑8 and 16‑byte UUIDs.
+ */
+public final class Wire {
+
+    /** Longest string a payload may carry; guards against corrupt length prefixes. */
+    public static final int MAX_STRING = 1024;
+
+    private Wire() {}
+
+    public static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    public static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0, shift = 0, b;
+        do {
+            if (shift > 28) throw new IOException("VarInt too long");
+            b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    public static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInputStream in) throws IOException {
+        int len = readVarInt(in);
+        if (len > MAX_STRING) throw new IOException("String too long: " + len);
+        byte[] bytes = new byte[len];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void writeUUID(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    public static UUID readUUID(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+}
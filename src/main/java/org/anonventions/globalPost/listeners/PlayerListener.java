@@ -7,11 +7,18 @@ import org.anonventions.globalPost.GlobalPost;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 
 /**
- * Notifies players of unread mail on join.
- * Uses MailboxManager#getMailCount which already applies per‑server filter.
+ * Notifies players of unread mail on join, and uses the joining player to
+ * deliver plugin messages queued while the server was empty. Every join also
+ * records the player's name → UUID for recipient resolution on all servers.
+ * Counts come from MailboxManager#onPlayerJoin, which applies the per‑server filter.
+ * Quits save the player's data before their pending collect grants are settled.
+ * Joins prefetch the player's mailbox into the cache (which also yields the
+ * count for the notice); quits drop it.
  */
 public class PlayerListener implements Listener {
 
@@ -21,11 +28,22 @@ public class PlayerListener implements Listener {
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent e) {
         Player p = e.getPlayer();
-        plugin.getMailboxManager().getMailCount(p.getUniqueId()).thenAccept(cnt -> {
+        plugin.getMailboxManager().getRecipientResolver().learn(p.getUniqueId(), p.getName());
+
+        // The proxy only routes once the connection is fully set up
+        plugin.getServer().getScheduler().runTaskLater(plugin, () -> plugin.getMessageHandler().onPlayerJoin(p), 20L);
+
+        // Prefetches the mailbox; the unread count for the notice comes with it
+        plugin.getMailboxManager().onPlayerJoin(p.getUniqueId()).thenAccept(cnt -> {
             if (cnt > 0)
                 plugin.getServer().getScheduler().runTaskLater(plugin,
                         () -> p.sendMessage("§6[Mail] §aYou have " + cnt + " unread mail(s)! Use /post to check."),
                         20L);
         });
     }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent e) {
+        plugin.getMailboxManager().onPlayerQuit(e.getPlayer());
+    }
 }
@@ -0,0 +1,65 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/managers/BulkMailer.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.managers;
+
+import org.anonventions.globalPost.GlobalPost;
+import org.anonventions.globalPost.database.ItemSerializer;
+import org.anonventions.globalPost.models.Mail;
+import org.anonventions.globalPost.models.Recipient;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Mass delivery of one item template to many recipients.
+ * – Items are serialised once and shared by every row.
+ * – Rows go in as chunked batch inserts, one chunk in flight at a time so
+ *   regular mail traffic keeps its share of the executor.
+ * – Progress is reported after every chunk.
+ */
+public class BulkMailer {
+
+    public record Progress(int total, int sent, int failed) {
+        public int percent() { return total == 0 ? 100 : (int) ((sent + failed) * 100L / total); }
+    }
+
+    private final GlobalPost plugin;
+
+    BulkMailer(GlobalPost plugin) { this.plugin = plugin; }
+
+    /** Recipients and template must already be validated; {@code dest} is canonical. */
+    CompletableFuture<Progress> send(UUID senderUUID, String senderName, List<Recipient> recipients,
+                                     String dest, List<ItemStack> template, String msg,
+                                     Consumer<Progress> progress) {
+        String source = plugin.getConfigManager().getServerName();
+        return plugin.getAsyncExecutor()
+                .supply(() -> ItemSerializer.serializeItems(template, plugin.getDatabaseManager().itemCodec()))
+                .thenCompose(items -> sendChunk(new Progress(recipients.size(), 0, 0), recipients, items,
+                        senderUUID, senderName, source, dest, template, msg, progress));
+    }
+
+    /*------------------------------------------------------------------------*/
+    private CompletableFuture<Progress> sendChunk(Progress sofar, List<Recipient> recipients, byte[] items,
+                                                  UUID senderUUID, String senderName, String source,
+                                                  String dest, List<ItemStack> template, String msg,
+                                                  Consumer<Progress> progress) {
+        int from = sofar.sent() + sofar.failed();
+        if (from >= recipients.size()) return CompletableFuture.completedFuture(sofar);
+
+        int to = Math.min(from + plugin.getConfigManager().getBulkChunkSize(), recipients.size());
+        List<Mail> chunk = new ArrayList<>(to - from);
+        for (Recipient r : recipients.subList(from, to))
+            chunk.add(new Mail(senderUUID, senderName, r.uuid(), r.name(), source, dest, template, msg));
+
+        return plugin.getDatabaseManager().saveMailBatch(chunk, items).thenCompose(written -> {
+            Progress next = new Progress(sofar.total(), sofar.sent() + written, sofar.failed() + chunk.size() - written);
+            progress.accept(next);
+            return sendChunk(next, recipients, items, senderUUID, senderName, source, dest, template, msg, progress);
+        });
+    }
+}
@@ -4,33 +4,36 @@ import org.anonventions.globalPost.GlobalPost;
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Set;
 
 public class ItemBlacklistManager {
 
     private final GlobalPost plugin;
-    private final Set<Material> blacklistedItems;
+    // Replaced as a whole on reload: sends check it from executor threads
+    private volatile Set<Material> blacklistedItems = Collections.emptySet();
 
     public ItemBlacklistManager(GlobalPost plugin) {
         this.plugin = plugin;
-        this.blacklistedItems = new HashSet<>();
         loadBlacklist();
     }
 
     private void loadBlacklist() {
-        blacklistedItems.clear();
+        Set<Material> loaded = EnumSet.noneOf(Material.class);
 
         for (String itemName : plugin.getConfigManager().getBlacklistedItems()) {
             try {
                 Material material = Material.valueOf(itemName.toUpperCase());
-                blacklistedItems.add(material);
+                loaded.add(material);
             } catch (IllegalArgumentException e) {
                 plugin.getLogger().warning("Invalid material in blacklist: " + itemName);
             }
         }
 
-        plugin.getLogger().info("Loaded " + blacklistedItems.size() + " blacklisted items");
+        blacklistedItems = Collections.unmodifiableSet(loaded);
+        plugin.getLogger().info("Loaded " + loaded.size() + " blacklisted items");
     }
 
     public boolean isBlacklisted(ItemStack item) {
@@ -0,0 +1,80 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/managers/MailNotifier.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.managers;
+
+import org.anonventions.globalPost.GlobalPost;
+import org.anonventions.globalPost.metrics.MetricsRegistry;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * "You've got mail" pushes after a successful save.
+ * – Sends to one recipient within notifications.coalesce_ms collapse into a
+ *   single message carrying the count.
+ * – Remote mailboxes get a MailNotification on globalpost:main, which also
+ *   invalidates the cached count there; local ones are told directly.
+ * – notification_lag_seconds measures first save → recipient told, coalescing
+ *   window included. Remote lag compares two servers' wall clocks.
+ */
+class MailNotifier {
+
+    private record Key(UUID recipient, String server) {}
+    private record Batch(int mails, long firstSavedAt) {}
+
+    private final GlobalPost              plugin;
+    private final Map<Key, Batch>         pending = new ConcurrentHashMap<>();
+    private final MetricsRegistry.Histogram localLag, remoteLag;
+
+    MailNotifier(GlobalPost plugin) {
+        this.plugin = plugin;
+        var lag = plugin.getMetrics().histogram("notification_lag_seconds",
+                "First save of a batch until the recipient's server shows the notice", MetricsRegistry.LATENCY_BUCKETS, "path");
+        this.localLag  = lag.labels("local");
+        this.remoteLag = lag.labels("remote");
+    }
+
+    /** Any thread. The first mail for a key opens its coalescing window. */
+    void publish(UUID recipient, String serverCanonical, int mails) {
+        Key key = new Key(recipient, serverCanonical);
+        Batch opened = new Batch(mails, System.currentTimeMillis());
+        Batch merged = pending.merge(key, opened, (a, b) -> new Batch(a.mails() + b.mails(), a.firstSavedAt()));
+        if (merged != opened || !plugin.isEnabled()) return;
+
+        long ticks = Math.max(1, plugin.getConfigManager().getNotifyCoalesceMs() / 50);
+        Bukkit.getScheduler().runTaskLater(plugin, () -> flush(key), ticks);
+    }
+
+    /*------------------------------------------------------------------------*/
+    private void flush(Key key) {
+        Batch batch = pending.remove(key);
+        if (batch == null) return;
+
+        if (key.server().equals(plugin.getConfigManager().getServerName())) {
+            observe(localLag, batch.firstSavedAt());
+            notifyLocal(key.recipient(), batch.mails());
+        }
+        else plugin.getMessageHandler().sendMailNotification(key.recipient(), key.server(), batch.mails(), batch.firstSavedAt());
+    }
+
+    /** Main thread; a MailNotification from another server. */
+    void notifyRemote(UUID recipient, int count, long firstSavedAt) {
+        if (firstSavedAt > 0) observe(remoteLag, firstSavedAt);
+        notifyLocal(recipient, count);
+    }
+
+    /** Main thread. */
+    private void notifyLocal(UUID recipient, int count) {
+        Player p = Bukkit.getPlayer(recipient);
+        if (p != null) p.sendMessage("§6[Mail] §aYou have " + count + " new mail(s)! Use /post to check.");
+    }
+
+    /** Clock skew can make remote lag negative; that counts as zero. */
+    private static void observe(MetricsRegistry.Histogram lag, long since) {
+        lag.observe(Math.max(0, System.currentTimeMillis() - since) / 1000.0);
+    }
+}
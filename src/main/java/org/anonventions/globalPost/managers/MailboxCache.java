@@ -0,0 +1,225 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/managers/MailboxCache.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.managers;
+
+import org.anonventions.globalPost.metrics.MetricsRegistry;
+import org.anonventions.globalPost.models.Mail;
+import org.anonventions.globalPost.models.MailItems;
+import org.anonventions.globalPost.models.MailPage;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Mailboxes of online players, so opening /post costs no database round trip.
+ * – First page of headers per online player: loaded on join, dropped on quit,
+ *   reloaded in the background when new mail arrives (on next open after a
+ *   bulk send). Invalidations during a load collapse into one follow‑up load.
+ * – A collect removes the mail from the cached page in place; a page that runs
+ *   short while later pages exist is reloaded instead.
+ * – Decoded item lists, LRU‑bounded by cache.mailbox.item_budget_kb of
+ *   estimated heap (see MailItems). A collect whose items are held skips
+ *   reading and decoding them.
+ */
+class MailboxCache {
+
+    private static final class Hot {
+        MailPage                    page;     // null until loaded, or after an invalidation
+        CompletableFuture<MailPage> loading;  // shared by every caller while in flight
+        int                         version;  // bumped by every change; stale loads are not stored
+    }
+
+    private record Held(UUID owner, MailItems items) {}
+
+    private final boolean                                     enabled;
+    private final Function<UUID, CompletableFuture<MailPage>> loader;
+    private final Map<UUID, Hot>                              online = new ConcurrentHashMap<>();
+
+    private final long                  budgetBytes;
+    private final Map<Integer, Held>    held = new LinkedHashMap<>(64, 0.75f, true); // access order
+    private long                        heldBytes;   // guarded by held
+
+    private final MetricsRegistry.Counter pageHits, pageMisses, itemHits, itemMisses;
+
+    /** @param loader first page of a player's mailbox from the database */
+    MailboxCache(boolean enabled, long budgetBytes, Function<UUID, CompletableFuture<MailPage>> loader,
+                 MetricsRegistry metrics) {
+        this.enabled     = enabled;
+        this.budgetBytes = budgetBytes;
+        this.loader      = loader;
+
+        var pages = metrics.counter("mailbox_cache_total", "Mailbox opens served from memory (hit) or the database (miss)", "result");
+        var items = metrics.counter("mailbox_items_total", "Collects whose items were already decoded (hit) or read from the database (miss)", "result");
+        pageHits   = pages.labels("hit");
+        pageMisses = pages.labels("miss");
+        itemHits   = items.labels("hit");
+        itemMisses = items.labels("miss");
+        metrics.gauge("mailbox_cache_players", "Online players whose first mailbox page is cached", online::size);
+        metrics.gauge("mailbox_items_held_bytes", "Estimated heap taken by the decoded item lists held in memory", this::heldBytes);
+    }
+
+    /*------------------------------------------------------------------------*/
+    /** Starts tracking {@code uuid} and loads their first page; completes with null when the cache is off. */
+    CompletableFuture<MailPage> join(UUID uuid) {
+        if (!enabled) return CompletableFuture.completedFuture(null);
+        Hot h = new Hot();
+        online.put(uuid, h);
+        return load(uuid, h);
+    }
+
+    void quit(UUID uuid) {
+        online.remove(uuid);
+        synchronized (held) {
+            for (Iterator<Held> it = held.values().iterator(); it.hasNext(); ) {
+                Held e = it.next();
+                if (!e.owner().equals(uuid)) continue;
+                heldBytes -= e.items().heapBytes();
+                it.remove();
+            }
+        }
+    }
+
+    /** The cached first page, the load already in flight, or a fresh load for players not tracked. */
+    CompletableFuture<MailPage> firstPage(UUID uuid) {
+        Hot h = online.get(uuid);
+        if (h == null) {
+            pageMisses.inc();
+            return loader.apply(uuid);
+        }
+        synchronized (h) {
+            if (h.page != null) {
+                pageHits.inc();
+                return CompletableFuture.completedFuture(h.page);
+            }
+        }
+        pageMisses.inc();
+        return load(uuid, h);
+    }
+
+    /** New mail for {@code uuid}: reload their page (once, however many arrive during the load). */
+    void invalidate(UUID uuid) {
+        Hot h = online.get(uuid);
+        if (h == null) return;
+        synchronized (h) {
+            h.version++;
+            h.page = null;
+            if (h.loading != null) return; // its completion sees the new version and loads again
+        }
+        load(uuid, h);
+    }
+
+    /** As {@link #invalidate(UUID)}, but the page only reloads when next opened (bulk sends). */
+    void markStale(UUID uuid) {
+        Hot h = online.get(uuid);
+        if (h != null) stale(h);
+    }
+
+    /** Mail changed for everyone (sweeper, remote bulk send); pages reload when next opened. */
+    void invalidateAll() {
+        online.values().forEach(MailboxCache::stale);
+    }
+
+    private static void stale(Hot h) {
+        synchronized (h) {
+            h.version++;
+            h.page = null;
+        }
+    }
+
+    /** Mail {@code id} left {@code uuid}'s mailbox (collected here or already gone). */
+    void removeMail(UUID uuid, int id) {
+        forgetItems(id);
+        Hot h = online.get(uuid);
+        if (h == null) return;
+        boolean reload;
+        synchronized (h) {
+            h.version++;
+            if (h.page == null) return;
+            List<Mail> left = new ArrayList<>(h.page.mails().size());
+            for (Mail m : h.page.mails()) if (m.getId() != id) left.add(m);
+            reload = left.size() < h.page.mails().size() && h.page.hasNext();
+            h.page = reload ? null : new MailPage(List.copyOf(left), h.page.next());
+            if (h.loading != null) return;
+        }
+        if (reload) load(uuid, h);
+    }
+
+    /*------------------------------------------------------------------------*/
+    private CompletableFuture<MailPage> load(UUID uuid, Hot h) {
+        CompletableFuture<MailPage> f;
+        int version;
+        synchronized (h) {
+            if (h.loading != null) return h.loading;
+            version   = h.version;
+            f         = loader.apply(uuid);
+            h.loading = f;
+        }
+        f.whenComplete((page, ex) -> {
+            boolean again;
+            synchronized (h) {
+                if (h.loading == f) h.loading = null;
+                boolean current = h.version == version;
+                if (ex == null && current) h.page = page;
+                again = ex == null && !current && online.get(uuid) == h;
+            }
+            if (again) load(uuid, h);
+        });
+        return f;
+    }
+
+    /*------------------------------------------------------------------------*/
+    /** Keeps decoded items for a later collect; lists over the whole budget, or of players gone, are not kept. */
+    void putItems(UUID owner, int id, MailItems items) {
+        if (!enabled || items.heapBytes() > budgetBytes || !online.containsKey(owner)) return;
+        synchronized (held) {
+            Held old = held.put(id, new Held(owner, items));
+            if (old != null) heldBytes -= old.items().heapBytes();
+            heldBytes += items.heapBytes();
+            for (Iterator<Held> it = held.values().iterator(); heldBytes > budgetBytes && it.hasNext(); ) {
+                heldBytes -= it.next().items().heapBytes();
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Join prefetch results. Only mails still on the cached first page are kept:
+     * one collected while the items loaded would otherwise sit in the LRU until
+     * evicted. Nothing is kept while the page is being reloaded.
+     */
+    void putPrefetched(UUID owner, Map<Integer, MailItems> found) {
+        Hot h = online.get(owner);
+        if (h == null) return;
+        Set<Integer> listed = new HashSet<>();
+        synchronized (h) {
+            if (h.page == null) return;
+            for (Mail m : h.page.mails()) listed.add(m.getId());
+        }
+        found.forEach((id, items) -> { if (listed.contains(id)) putItems(owner, id, items); });
+    }
+
+    /** Removes and returns the held items of mail {@code id}, or null. */
+    MailItems takeItems(int id) {
+        Held e;
+        synchronized (held) {
+            e = held.remove(id);
+            if (e != null) heldBytes -= e.items().heapBytes();
+        }
+        (e != null ? itemHits : itemMisses).inc();
+        return e == null ? null : e.items();
+    }
+
+    private void forgetItems(int id) {
+        synchronized (held) {
+            Held e = held.remove(id);
+            if (e != null) heldBytes -= e.items().heapBytes();
+        }
+    }
+
+    private long heldBytes() {
+        synchronized (held) { return heldBytes; }
+    }
+}
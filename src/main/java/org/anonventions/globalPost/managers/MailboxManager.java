@@ -4,87 +4,408 @@
 package org.anonventions.globalPost.managers;
 
 import org.anonventions.globalPost.GlobalPost;
+import org.anonventions.globalPost.concurrent.StageTimer;
+import org.anonventions.globalPost.config.ConfigSnapshot;
+import org.anonventions.globalPost.database.ItemSerializer;
+import org.anonventions.globalPost.metrics.MetricsRegistry;
+import org.anonventions.globalPost.metrics.OutcomeCounter;
 import org.anonventions.globalPost.models.Mail;
+import org.anonventions.globalPost.models.MailItems;
+import org.anonventions.globalPost.models.MailPage;
+import org.anonventions.globalPost.models.Recipient;
 import org.bukkit.Bukkit;
+import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 /**
  * High‑level mail orchestration.
  * – Centralised name canonicalisation.
  * – Delegates persistence to DatabaseManager.
+ * – Keeps online players' mailboxes in a MailboxCache, in step with sends and collects.
  */
 public class MailboxManager {
 
-    private final GlobalPost plugin;
+    private final GlobalPost       plugin;
+    private final UnreadCountCache unreadCounts;
+    private final MailboxCache     mailboxes;
+    private final BulkMailer       bulkMailer;
+    private final MailNotifier     notifier;
+    private final RecipientResolver resolver;
+    private final StageTimer<SendStage> sendTimings;
 
-    public MailboxManager(GlobalPost plugin) { this.plugin = plugin; }
+    private final OutcomeCounter<SendResult>    sendOutcomes;
+    private final OutcomeCounter<CollectResult> collectOutcomes;
+    private final MetricsRegistry.Histogram     sendLatency;
+
+    private final Set<Integer>            collecting = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Set<Integer>> granted    = new ConcurrentHashMap<>(); // granted, player data not yet saved
+
+    public MailboxManager(GlobalPost plugin) {
+        this.plugin       = plugin;
+        this.unreadCounts = new UnreadCountCache(
+                plugin.getConfigManager().getUnreadCacheTtlSeconds() * 1000L,
+                plugin.getConfigManager().getUnreadCacheMaxEntries());
+        this.mailboxes    = new MailboxCache(
+                plugin.getConfigManager().isMailboxCacheEnabled(),
+                plugin.getConfigManager().getMailboxItemBudgetKb() * 1024L,
+                uuid -> loadPage(uuid, null), plugin.getMetrics());
+        this.bulkMailer   = new BulkMailer(plugin);
+        this.notifier     = new MailNotifier(plugin);
+        this.resolver     = new RecipientResolver(plugin);
+
+        MetricsRegistry metrics = plugin.getMetrics();
+        this.sendTimings     = new StageTimer<>(SendStage.class, metrics.histogram("send_stage_seconds",
+                "Time spent in each step of a send", MetricsRegistry.LATENCY_BUCKETS, "stage"));
+        this.sendLatency     = metrics.histogram("send_seconds", "Whole send, click to committed insert",
+                MetricsRegistry.LATENCY_BUCKETS).get();
+        this.sendOutcomes    = new OutcomeCounter<>(metrics.counter("sends_total",
+                "Sends by result; busy = executor or write queue full", "result"), SendResult.class);
+        this.collectOutcomes = new OutcomeCounter<>(metrics.counter("collects_total",
+                "Collects by result; busy = executor full", "result"), CollectResult.class);
+        metrics.gauge("unread_cache_entries", "Unread counts held in memory", unreadCounts::size);
+    }
 
     private String canonical(String s) { return plugin.getConfigManager().normalised(s); }
 
     /*------------------------------------------------------------------------*/
-    public CompletableFuture<Boolean> sendMail(Player sender, String recipient, String dest,
-                                               List<ItemStack> items, String msg) {
-        return CompletableFuture.supplyAsync(() ->
-                sendCore(sender.getUniqueId(), sender.getName(), recipient, dest, items, msg));
+    public enum SendResult { SENT, INVALID_DESTINATION, BLACKLISTED, UNKNOWN_RECIPIENT, QUOTA_EXCEEDED, FAILED }
+
+    /** Senders with this permission are not held to settings.max_mails_per_player. */
+    public static final String QUOTA_BYPASS_PERMISSION = "globalpost.quota.bypass";
+
+    /** Steps of {@link #sendMail}, timed into send_stage_seconds (see /post stats send). */
+    public enum SendStage { VALIDATE, RESOLVE, SERIALIZE, QUOTA, PERSIST }
+
+    /**
+     * Main thread (reads the sender's permissions), returns at once. The send
+     * runs as one future chain on the plugin executor, and nothing in it joins
+     * another future:
+     * validate → resolve recipient → serialise items → reserve quota → queue insert.
+     * A full executor fails the future with a RejectedExecutionException.
+     * All settings come from one config snapshot, so a reload mid‑send can't mix old and new values.
+     */
+    public CompletableFuture<SendResult> sendMail(Player sender, String recipient, String dest,
+                                                  List<ItemStack> items, String msg) {
+        boolean exempt     = sender.hasPermission(QUOTA_BYPASS_PERMISSION);
+        UUID    senderUUID = sender.getUniqueId();
+        String  senderName = sender.getName();
+        ConfigSnapshot cfg = plugin.getConfigManager().snapshot();
+        Executor executor  = plugin.getAsyncExecutor();
+        StageTimer<SendStage>.Trace trace = sendTimings.start();
+
+        CompletableFuture<SendResult> result = plugin.getAsyncExecutor().supply(() -> {
+            SendResult invalid = validate(cfg, dest, items);
+            trace.mark(SendStage.VALIDATE);
+            return invalid;
+        }).thenCompose(invalid -> invalid != null
+                ? CompletableFuture.completedFuture(invalid)
+                : resolver.resolve(recipient).thenComposeAsync(uuid -> {
+                    trace.mark(SendStage.RESOLVE);
+                    if (uuid.isEmpty()) return CompletableFuture.completedFuture(SendResult.UNKNOWN_RECIPIENT);
+
+                    Mail   mail = buildMail(cfg, senderUUID, senderName, uuid.get(), recipient, dest, items, msg);
+                    byte[] data = ItemSerializer.serializeItems(items, plugin.getDatabaseManager().itemCodec());
+                    trace.mark(SendStage.SERIALIZE);
+                    return deliver(mail, data, exempt ? 0 : cfg.getMaxMailsPerPlayer(), trace);
+                }, executor));
+
+        long slowMs = cfg.getSlowSendWarnMs();
+        result.whenComplete((r, ex) -> {
+            long nanos = trace.elapsedNanos();
+            sendLatency.observeNanos(nanos);
+            sendOutcomes.record(r, ex);
+            long took = nanos / 1_000_000;
+            if (slowMs > 0 && took >= slowMs)
+                plugin.getLogger().warning("Slow send to " + recipient + " (" + took + "ms, " + (ex != null ? "failed" : r) + "): " + trace);
+        });
+        return result;
+    }
+
+    /** Takes a quota slot (limit &gt; 0), queues the insert, and gives the slot back on failure. */
+    private CompletableFuture<SendResult> deliver(Mail mail, byte[] data, int limit,
+                                                  StageTimer<SendStage>.Trace trace) {
+        if (limit <= 0)
+            return plugin.getDatabaseManager().saveMail(mail, data).thenApply(ok -> {
+                trace.mark(SendStage.PERSIST);
+                if (!ok) return SendResult.FAILED;
+                unreadCounts.adjust(mail.getRecipientUUID(), mail.getDestinationServer(), +1);
+                onMailSaved(mail);
+                return SendResult.SENT;
+            });
+
+        UUID recipient = mail.getRecipientUUID();
+        String dest    = mail.getDestinationServer();
+        return unreadCounts.tryReserve(recipient, dest, limit,
+                        () -> plugin.getDatabaseManager().getMailCount(recipient, dest))
+                .thenCompose(reserved -> {
+                    trace.mark(SendStage.QUOTA);
+                    if (!reserved) return CompletableFuture.completedFuture(SendResult.QUOTA_EXCEEDED);
+                    return plugin.getDatabaseManager().saveMail(mail, data).handle((ok, ex) -> {
+                        trace.mark(SendStage.PERSIST);
+                        if (ex != null || !ok) {
+                            unreadCounts.adjust(recipient, dest, -1);
+                            if (ex != null) throw ex instanceof CompletionException ce ? ce : new CompletionException(ex);
+                            return SendResult.FAILED;
+                        }
+                        onMailSaved(mail);
+                        return SendResult.SENT;
+                    });
+                });
     }
 
-    public boolean sendMailDirect(UUID senderUUID, String senderName, UUID recipientUUID,
-                                  String recipientName, String dest, List<ItemStack> items, String msg) {
-        return sendCore(senderUUID, senderName, recipientName, dest, items, msg);
+    /**
+     * Sends one item template to every recipient. Destination and blacklist are
+     * checked once; invalid input fails the future with IllegalArgumentException.
+     * Duplicate recipients (same UUID) receive a single mail.
+     */
+    public CompletableFuture<BulkMailer.Progress> sendBulk(UUID senderUUID, String senderName,
+                                                           Collection<Recipient> recipients, String dest,
+                                                           List<ItemStack> template, String msg,
+                                                           Consumer<BulkMailer.Progress> progress) {
+        String canonicalDest = canonical(dest);
+        if (!plugin.getConfigManager().isAllowedDestination(canonicalDest))
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Invalid destination server: " + canonicalDest));
+        if (template.isEmpty())
+            return CompletableFuture.failedFuture(new IllegalArgumentException("No items to send"));
+        for (ItemStack it : template)
+            if (plugin.getBlacklistManager().isBlacklisted(it))
+                return CompletableFuture.failedFuture(new IllegalArgumentException("Blacklisted item: " + it.getType()));
+
+        Map<UUID, Recipient> unique = new LinkedHashMap<>();
+        for (Recipient r : recipients) unique.putIfAbsent(r.uuid(), r);
+        List<Recipient> list = new ArrayList<>(unique.values());
+
+        return bulkMailer.send(senderUUID, senderName, list, canonicalDest, template, msg, progress)
+                .thenApply(result -> {
+                    if (canonicalDest.equals(plugin.getConfigManager().getServerName()))
+                        list.forEach(r -> {
+                            unreadCounts.invalidate(r.uuid(), canonicalDest);
+                            mailboxes.markStale(r.uuid()); // reloaded on next open, not all at once
+                        });
+                    else
+                        plugin.getMessageHandler().sendCountInvalidationAll(canonicalDest);
+                    return result;
+                });
     }
 
-    private boolean sendCore(UUID senderUUID, String senderName, String recipientName,
-                             String dest, List<ItemStack> items, String msg) {
+    /**
+     * Our cached count is already in step. The (coalesced) notification tells the
+     * recipient, and makes a remote destination drop its cached count. A
+     * recipient online here gets their cached mailbox page reloaded.
+     */
+    private void onMailSaved(Mail mail) {
+        if (mail.getDestinationServer().equals(plugin.getConfigManager().getServerName()))
+            mailboxes.invalidate(mail.getRecipientUUID());
+        notifier.publish(mail.getRecipientUUID(), mail.getDestinationServer(), 1);
+    }
 
-        dest = canonical(dest);
-        if (!plugin.getConfigManager().getAllowedDestinations().contains(dest)) {
-            plugin.getLogger().warning("Invalid destination: " + dest); return false;
+    /** Checks destination + items; null when the mail may be sent. */
+    private SendResult validate(ConfigSnapshot cfg, String dest, List<ItemStack> items) {
+        if (!cfg.allowsDestination(dest)) {
+            plugin.getLogger().warning("Invalid destination: " + dest); return SendResult.INVALID_DESTINATION;
         }
 
         for (ItemStack it : items)
             if (plugin.getBlacklistManager().isBlacklisted(it)) {
-                plugin.getLogger().warning("Blacklisted: " + it.getType()); return false;
+                plugin.getLogger().warning("Blacklisted: " + it.getType()); return SendResult.BLACKLISTED;
             }
+        return null;
+    }
 
-        Mail mail = new Mail(
+    /** Builds an already validated mail. */
+    private Mail buildMail(ConfigSnapshot cfg, UUID senderUUID, String senderName, UUID recipientUUID,
+                           String recipientName, String dest, List<ItemStack> items, String msg) {
+        return new Mail(
                 senderUUID, senderName,
-                getRecipientUUID(recipientName), recipientName,
-                plugin.getConfigManager().getServerName(), dest,
+                recipientUUID, recipientName,
+                cfg.getServerName(), canonical(dest),
                 items, msg);
-
-        return plugin.getDatabaseManager().saveMail(mail).join();
     }
 
     /*------------------------------------------------------------------------*/
-    public CompletableFuture<List<Mail>> getPlayerMails(UUID uuid) {
-        return plugin.getDatabaseManager().getUnreadMails(uuid,
-                plugin.getConfigManager().getServerName());
+    public static final int PAGE_SIZE = 45;
+
+    /**
+     * One page of unread mail headers on this server; items are not decoded
+     * (see {@link #collect(Mail, Player)}). Pass the previous page's cursor, or null.
+     * The first page of an online player comes from the mailbox cache.
+     */
+    public CompletableFuture<MailPage> getPlayerMailPage(UUID uuid, MailPage.Cursor after) {
+        return after == null ? mailboxes.firstPage(uuid) : loadPage(uuid, after);
+    }
+
+    private CompletableFuture<MailPage> loadPage(UUID uuid, MailPage.Cursor after) {
+        return plugin.getDatabaseManager().getUnreadMailHeaderPage(uuid,
+                plugin.getConfigManager().getServerName(), after, PAGE_SIZE);
     }
 
-    public CompletableFuture<Boolean> collectMail(int id, Player p) {
-        return plugin.getDatabaseManager().markMailAsCollected(id).thenApply(success -> {
-            if (success) plugin.getLogger().info("Mail "+id+" collected by "+p.getName());
-            return success;
+    /**
+     * Join prefetch, off the main thread: loads the first mailbox page into the
+     * cache and, with cache.mailbox.prefetch_items, decodes its items as well,
+     * so the first /post open and collects need no database work. Completes
+     * with the unread count for the join notice; a page without a next page
+     * is that count, so only larger mailboxes run COUNT(*).
+     */
+    public CompletableFuture<Integer> onPlayerJoin(UUID uuid) {
+        return mailboxes.join(uuid).thenCompose(page -> {
+            if (page == null) return getMailCount(uuid);
+            if (plugin.getConfigManager().isMailboxPrefetchItems() && !page.mails().isEmpty())
+                prefetchItems(uuid, page);
+            return page.hasNext() ? getMailCount(uuid) : CompletableFuture.completedFuture(page.mails().size());
         });
     }
 
-    public CompletableFuture<Integer> getMailCount(UUID uuid) {
-        return plugin.getDatabaseManager().getMailCount(uuid,
-                plugin.getConfigManager().getServerName());
+    private void prefetchItems(UUID uuid, MailPage page) {
+        List<Integer> ids = new ArrayList<>(page.mails().size());
+        for (Mail m : page.mails()) ids.add(m.getId());
+        plugin.getDatabaseManager().loadMailItems(ids).thenAccept(found -> mailboxes.putPrefetched(uuid, found));
     }
 
     /*------------------------------------------------------------------------*/
-    private UUID getRecipientUUID(String playerName) {
-        Player online = Bukkit.getPlayer(playerName);
-        if (online != null) return online.getUniqueId();
-        try { return Bukkit.getOfflinePlayer(playerName).getUniqueId(); }
-        catch (Exception ex) {
-            plugin.getLogger().warning("UUID lookup failed for "+playerName);
-            return UUID.nameUUIDFromBytes(("OfflinePlayer:"+playerName).getBytes());
+    public enum CollectResult { COLLECTED, ALREADY_COLLECTED, IN_PROGRESS, NO_SPACE, FAILED }
+
+    /**
+     * Claim‑first collect: the row is claimed and journaled in one transaction,
+     * the journal row is marked GRANTED, items are handed over on the main thread, and the journal entry is only
+     * dropped once the player's data has been saved (see {@link #settleGrants(Player)}).
+     * A second click, or a collect racing on another server, gets ALREADY_COLLECTED
+     * or IN_PROGRESS instead of a second copy of the items.
+     */
+    public CompletableFuture<CollectResult> collect(Mail mail, Player p) {
+        int id = mail.getId();
+        if (!collecting.add(id)) {
+            collectOutcomes.record(CollectResult.IN_PROGRESS, null);
+            return CompletableFuture.completedFuture(CollectResult.IN_PROGRESS);
+        }
+
+        String server = plugin.getConfigManager().getServerName();
+        CompletableFuture<CollectResult> result = new CompletableFuture<>();
+        claim(id, p.getUniqueId(), server).thenCompose(items -> markGranted(id, items)).whenComplete((items, ex) -> {
+            if (ex != null)          { result.completeExceptionally(ex); return; }
+            if (items == null)       { result.complete(CollectResult.FAILED); return; }
+            if (items.isEmpty())     { result.complete(CollectResult.ALREADY_COLLECTED); return; }
+            if (!plugin.isEnabled()) { result.complete(CollectResult.FAILED); return; } // logged for staff on start
+            Bukkit.getScheduler().runTask(plugin, () -> result.complete(grant(id, p, items.get())));
+        });
+        return result.whenComplete((r, ex) -> {
+            collecting.remove(id);
+            collectOutcomes.record(r, ex);
+            if (r == CollectResult.COLLECTED || r == CollectResult.ALREADY_COLLECTED)
+                mailboxes.removeMail(p.getUniqueId(), id);
+        });
+    }
+
+    /** Claims with the cached items when held, so only the claim itself touches the database. */
+    private CompletableFuture<Optional<MailItems>> claim(int id, UUID recipient, String server) {
+        MailItems held = mailboxes.takeItems(id);
+        if (held == null) return plugin.getDatabaseManager().claimMail(id, recipient, server);
+        return plugin.getDatabaseManager().claimMailOnly(id, recipient, server)
+                .thenApply(claimed -> claimed ? Optional.of(held) : Optional.empty());
+    }
+
+    /**
+     * Marks the journal row GRANTED before any item is handed out, so a crash
+     * can never leave granted items behind a CLAIMED row that recovery would
+     * put back in the mailbox. Null (after giving the claim back) if the mark failed.
+     */
+    private CompletableFuture<Optional<MailItems>> markGranted(int id, Optional<MailItems> items) {
+        if (items.isEmpty()) return CompletableFuture.completedFuture(items);
+        return plugin.getDatabaseManager().markGranted(id).thenApply(marked -> {
+            if (marked) return items;
+            plugin.getDatabaseManager().releaseClaim(id);
+            return null;
+        });
+    }
+
+    /** Main thread: hand the claimed items over, or give the claim back (keeping the decoded items). */
+    private CollectResult grant(int id, Player p, MailItems claimed) {
+        List<ItemStack> items = claimed.items();
+        if (!p.isOnline() || freeSlots(p) < items.size()) {
+            plugin.getDatabaseManager().releaseClaim(id);
+            if (p.isOnline()) mailboxes.putItems(p.getUniqueId(), id, claimed);
+            return CollectResult.NO_SPACE;
+        }
+
+        for (ItemStack left : p.getInventory().addItem(items.toArray(new ItemStack[0])).values())
+            p.getWorld().dropItemNaturally(p.getLocation(), left);
+
+        Set<Integer> pending = granted.computeIfAbsent(p.getUniqueId(), k -> ConcurrentHashMap.newKeySet());
+        if (pending.isEmpty()) Bukkit.getScheduler().runTask(plugin, () -> settleGrants(p)); // one save for a tick's collects
+        pending.add(id);
+        unreadCounts.adjust(p.getUniqueId(), plugin.getConfigManager().getServerName(), -1);
+        plugin.getLogger().info("Mail " + id + " collected by " + p.getName());
+        return CollectResult.COLLECTED;
+    }
+
+    /** Empty storage slots (armour and off‑hand excluded). */
+    public static int freeSlots(Player player) {
+        int free = 0;
+        for (ItemStack it : player.getInventory().getStorageContents())
+            if (it == null || it.getType() == Material.AIR) free++;
+        return free;
+    }
+
+    /**
+     * Main thread: writes the player's data file, so the items granted to them
+     * are durable, then drops their journal rows. Runs the tick after a grant
+     * and on quit; quit events fire before the server saves the player itself.
+     */
+    private void settleGrants(Player p) {
+        Set<Integer> ids = granted.remove(p.getUniqueId());
+        if (ids == null || ids.isEmpty()) return;
+        p.saveData();
+        plugin.getDatabaseManager().clearJournal(ids);
+    }
+
+    public void onPlayerQuit(Player p) {
+        mailboxes.quit(p.getUniqueId());
+        settleGrants(p);
+    }
+
+    /** Plugin disable runs before the server saves its players; save and clear synchronously. */
+    public void shutdown() {
+        for (UUID uuid : List.copyOf(granted.keySet())) {
+            Set<Integer> ids = granted.remove(uuid);
+            Player p = Bukkit.getPlayer(uuid);
+            if (ids == null || ids.isEmpty() || p == null) continue; // offline: left for startup recovery
+            p.saveData();
+            plugin.getDatabaseManager().clearJournalNow(ids);
         }
     }
+
+    /** Unread count on this server, served from the count cache when fresh. */
+    public CompletableFuture<Integer> getMailCount(UUID uuid) {
+        return getMailCount(uuid, plugin.getConfigManager().getServerName());
+    }
+
+    public CompletableFuture<Integer> getMailCount(UUID uuid, String serverCanonical) {
+        return unreadCounts.get(uuid, serverCanonical,
+                () -> plugin.getDatabaseManager().getMailCount(uuid, serverCanonical));
+    }
+
+    /**
+     * Another server saved {@code count} mail(s) for {@code uuid} here. Main thread.
+     * @param firstSavedAt sender's wall clock when the first of them was saved, or 0 if unknown
+     */
+    public void onMailNotification(UUID uuid, int count, long firstSavedAt) {
+        unreadCounts.invalidate(uuid, plugin.getConfigManager().getServerName());
+        mailboxes.invalidate(uuid);
+        notifier.notifyRemote(uuid, count, firstSavedAt);
+    }
+
+    /** Called after a bulk send to this server; cheaper than one message per recipient. */
+    public void invalidateAllMailCounts() {
+        unreadCounts.clear();
+        mailboxes.invalidateAll();
+    }
+
+    public RecipientResolver getRecipientResolver() { return resolver; }
 }
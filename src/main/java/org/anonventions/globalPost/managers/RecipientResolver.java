@@ -0,0 +1,119 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/managers/RecipientResolver.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.managers;
+
+import org.anonventions.globalPost.GlobalPost;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Player name → UUID, without ever blocking on a Mojang profile lookup.
+ * – Tiers: online players, an LRU of known names, then the player_names
+ *   table (learned from joins on every server).
+ * – Known names expire after a TTL so a name taken over by another account
+ *   on another server is picked up; joins here refresh them straight away.
+ * – Names nobody has used are remembered for a short negative TTL.
+ * – Unknown names resolve to empty; there is no offline‑mode UUID guess,
+ *   so mail can't be routed to an account that doesn't exist.
+ */
+public class RecipientResolver {
+
+    private final GlobalPost          plugin;
+    private final Map<String, Known>  known;
+    private final Map<String, Long>   unknownUntil = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Optional<UUID>>> loading = new ConcurrentHashMap<>();
+
+    RecipientResolver(GlobalPost plugin) {
+        this.plugin = plugin;
+        int max = plugin.getConfigManager().getNameCacheMaxEntries();
+        this.known = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<String, Known> eldest) { return size() > max; }
+        };
+    }
+
+    private record Known(UUID uuid, long until) {}
+
+    private static String key(String name) { return name.trim().toLowerCase(Locale.ROOT); }
+
+    /*------------------------------------------------------------------------*/
+    /** Any thread. Concurrent misses for one name share a single query. */
+    public CompletableFuture<Optional<UUID>> resolve(String name) {
+        String key = key(name);
+        Optional<UUID> hit = fromMemory(name, key);
+        if (hit != null) return CompletableFuture.completedFuture(hit);
+
+        CompletableFuture<Optional<UUID>> fresh   = new CompletableFuture<>();
+        CompletableFuture<Optional<UUID>> pending = loading.putIfAbsent(key, fresh);
+        if (pending != null) return pending;
+
+        plugin.getDatabaseManager().findPlayerUUIDs(List.of(key)).whenComplete((found, ex) -> {
+            loading.remove(key, fresh);
+            if (ex != null) { fresh.completeExceptionally(ex); return; }
+            fresh.complete(remember(key, found.get(key)));
+        });
+        return fresh;
+    }
+
+    /** Resolves many names with at most one query; unknown names are left out of the map. */
+    public CompletableFuture<Map<String, UUID>> resolveAll(Collection<String> names) {
+        Map<String, UUID> out    = new LinkedHashMap<>();
+        Map<String, String> miss = new LinkedHashMap<>(); // key → name as given
+        for (String name : names) {
+            if (name.isBlank()) continue;
+            Optional<UUID> hit = fromMemory(name, key(name));
+            if (hit == null) miss.putIfAbsent(key(name), name);
+            else hit.ifPresent(uuid -> out.put(name, uuid));
+        }
+        if (miss.isEmpty()) return CompletableFuture.completedFuture(out);
+
+        return plugin.getDatabaseManager().findPlayerUUIDs(miss.keySet()).thenApply(found -> {
+            miss.forEach((key, name) -> remember(key, found.get(key)).ifPresent(uuid -> out.put(name, uuid)));
+            return out;
+        });
+    }
+
+    /** A player logged in here: cache and persist the mapping so every server learns it. */
+    public void learn(UUID uuid, String name) {
+        String key = key(name);
+        unknownUntil.remove(key);
+        remember(key, uuid);
+        plugin.getDatabaseManager().savePlayerName(uuid, name, plugin.getConfigManager().getServerName());
+    }
+
+    /*------------------------------------------------------------------------*/
+    /** Online player, LRU or negative entry; null when the database has to be asked. */
+    private Optional<UUID> fromMemory(String name, String key) {
+        Player online = Bukkit.getPlayerExact(name.trim());
+        if (online != null) return Optional.of(online.getUniqueId());
+
+        synchronized (known) {
+            Known hit = known.get(key);
+            if (hit != null) {
+                if (hit.until() > System.currentTimeMillis()) return Optional.of(hit.uuid());
+                known.remove(key);
+            }
+        }
+        Long until = unknownUntil.get(key);
+        if (until != null) {
+            if (until > System.currentTimeMillis()) return Optional.empty();
+            unknownUntil.remove(key, until);
+        }
+        return null;
+    }
+
+    /** Caches the database's answer, including "nobody by that name". */
+    private Optional<UUID> remember(String key, UUID uuid) {
+        if (uuid == null) {
+            unknownUntil.put(key, System.currentTimeMillis() + plugin.getConfigManager().getNameCacheNegativeTtlSeconds() * 1000L);
+            return Optional.empty();
+        }
+        long until = System.currentTimeMillis() + plugin.getConfigManager().getNameCacheTtlSeconds() * 1000L;
+        synchronized (known) { known.put(key, new Known(uuid, until)); }
+        return Optional.of(uuid);
+    }
+}
@@ -0,0 +1,62 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/managers/RecipientSelector.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.managers;
+
+import org.anonventions.globalPost.GlobalPost;
+import org.anonventions.globalPost.models.Recipient;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Turns a bulk selector into recipients.
+ * <pre>
+ *   all          every player in the player_names table (joined any server)
+ *   online       players online here
+ *   perm:&lt;node&gt;  online players with the permission
+ *   a,b,c        explicit names, resolved through the RecipientResolver
+ * </pre>
+ * perm: only sees online players: Player#hasPermission is the only check the
+ * Bukkit API offers, and offline players have no permissions attached.
+ * Must be called on the main thread; "all" and names are read on the executor.
+ */
+public final class RecipientSelector {
+
+    private RecipientSelector() {}
+
+    public static CompletableFuture<List<Recipient>> resolve(GlobalPost plugin, String selector) {
+        String sel = selector.trim();
+
+        if (sel.equalsIgnoreCase("all"))
+            return plugin.getDatabaseManager().findAllPlayers();
+
+        if (sel.equalsIgnoreCase("online"))
+            return CompletableFuture.completedFuture(online(null));
+
+        if (sel.regionMatches(true, 0, "perm:", 0, 5))
+            return CompletableFuture.completedFuture(online(sel.substring(5)));
+
+        List<String> names = Arrays.stream(sel.split(",")).map(String::trim).filter(n -> !n.isEmpty()).toList();
+        return plugin.getMailboxManager().getRecipientResolver().resolveAll(names).thenApply(found -> {
+            Map<UUID, Recipient> named = new LinkedHashMap<>();
+            found.forEach((name, uuid) -> named.putIfAbsent(uuid, new Recipient(uuid, name)));
+            return new ArrayList<>(named.values());
+        });
+    }
+
+    /** True for selectors that skip offline players (online, perm:). */
+    public static boolean isOnlineOnly(String selector) {
+        String sel = selector.trim();
+        return sel.equalsIgnoreCase("online") || sel.regionMatches(true, 0, "perm:", 0, 5);
+    }
+
+    private static List<Recipient> online(String permission) {
+        List<Recipient> out = new ArrayList<>();
+        for (Player p : Bukkit.getOnlinePlayers())
+            if (permission == null || p.hasPermission(permission)) out.add(new Recipient(p.getUniqueId(), p.getName()));
+        return out;
+    }
+}
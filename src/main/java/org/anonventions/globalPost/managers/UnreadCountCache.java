@@ -0,0 +1,113 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/managers/UnreadCountCache.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.managers;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Unread‑mail counts per (recipient, destination server).
+ * – Entries expire after a TTL and the map is LRU‑bounded.
+ * – Concurrent misses for one key share a single DB load (no join stampede).
+ * – Local sends/collects adjust cached values; remote sends invalidate them.
+ * – Doubles as the settings.max_mails_per_player quota counter (tryReserve),
+ *   so a send costs no COUNT(*) while the entry is fresh.
+ */
+class UnreadCountCache {
+
+    private record Key(UUID recipient, String server) {}
+    private record Entry(int count, long expiresAt) {}
+
+    private final long ttlMillis;
+    private final int  maxEntries;
+
+    private final Map<Key, Entry> entries;
+    private final Map<Key, CompletableFuture<Integer>> loading = new ConcurrentHashMap<>();
+
+    UnreadCountCache(long ttlMillis, int maxEntries) {
+        this.ttlMillis  = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.entries    = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > UnreadCountCache.this.maxEntries;
+            }
+        };
+    }
+
+    /*------------------------------------------------------------------------*/
+    /** Cached count, or one shared load through {@code loader} on a miss. */
+    CompletableFuture<Integer> get(UUID recipient, String server, Supplier<CompletableFuture<Integer>> loader) {
+        Key key = new Key(recipient, server);
+        synchronized (entries) {
+            Entry e = entries.get(key);
+            if (e != null && e.expiresAt() > System.currentTimeMillis())
+                return CompletableFuture.completedFuture(e.count());
+        }
+
+        CompletableFuture<Integer> fresh   = new CompletableFuture<>();
+        CompletableFuture<Integer> pending = loading.putIfAbsent(key, fresh);
+        if (pending != null) return pending;
+
+        loader.get().whenComplete((count, ex) -> {
+            // An invalidation during the load drops our marker; the result is then stale, don't cache it
+            if (loading.remove(key, fresh) && ex == null) put(key, count);
+            if (ex == null) fresh.complete(count);
+            else fresh.completeExceptionally(ex);
+        });
+        return fresh;
+    }
+
+    /**
+     * Quota check and increment in one step: counts one more unread mail unless
+     * the mailbox already holds {@code limit}. The caller gives the slot back with
+     * {@code adjust(.., -1)} if the insert then fails.
+     */
+    CompletableFuture<Boolean> tryReserve(UUID recipient, String server, int limit,
+                                          Supplier<CompletableFuture<Integer>> loader) {
+        return get(recipient, server, loader).thenApply(loaded -> {
+            Key key = new Key(recipient, server);
+            long now = System.currentTimeMillis();
+            synchronized (entries) {
+                Entry e = entries.get(key);
+                boolean fresh = e != null && e.expiresAt() > now;
+                int count = fresh ? e.count() : loaded;
+                if (count >= limit) return false;
+                entries.put(key, new Entry(count + 1, fresh ? e.expiresAt() : now + ttlMillis));
+                return true;
+            }
+        });
+    }
+
+    /** Adds {@code delta} to a cached entry; absent or expired entries are left for the next load. */
+    void adjust(UUID recipient, String server, int delta) {
+        Key key = new Key(recipient, server);
+        synchronized (entries) {
+            Entry e = entries.get(key);
+            if (e == null || e.expiresAt() <= System.currentTimeMillis()) return;
+            entries.put(key, new Entry(Math.max(0, e.count() + delta), e.expiresAt()));
+        }
+    }
+
+    void invalidate(UUID recipient, String server) {
+        Key key = new Key(recipient, server);
+        loading.remove(key);
+        synchronized (entries) { entries.remove(key); }
+    }
+
+    void clear() {
+        loading.clear();
+        synchronized (entries) { entries.clear(); }
+    }
+
+    int size() {
+        synchronized (entries) { return entries.size(); }
+    }
+
+    /*------------------------------------------------------------------------*/
+    private void put(Key key, int count) {
+        synchronized (entries) { entries.put(key, new Entry(count, System.currentTimeMillis() + ttlMillis)); }
+    }
+}
@@ -0,0 +1,273 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/messaging/BrokerTransport.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.messaging;
+
+import org.anonventions.globalPost.GlobalPost;
+import org.anonventions.globalPost.config.ConfigManager;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Redis‑compatible pub/sub transport (Redis, KeyDB, Valkey, or {@link InProcessBroker}).
+ * – Each server subscribes to &lt;prefix&gt;:&lt;server&gt; and &lt;prefix&gt;:ALL;
+ *   no player connection is needed on either side.
+ * – One publisher thread pipelines up to PIPELINE PUBLISH commands per flush
+ *   and only then reads their replies.
+ * – Both connections reconnect with exponential backoff. An unacknowledged
+ *   pipeline is sent again, so delivery is at‑least‑once while connected;
+ *   messages published while this server's subscriber is down are missed.
+ * – An -ERR reply is not a disconnect: a rejected PUBLISH is logged and
+ *   dropped, a rejected AUTH or SUBSCRIBE stops the transport.
+ */
+class BrokerTransport implements Transport {
+
+    private static final int    PIPELINE        = 256;
+    private static final long   MIN_BACKOFF_MS  = 500;
+    private static final long   MAX_BACKOFF_MS  = 30_000;
+    private static final int    CONNECT_TIMEOUT = 5000;
+    private static final byte[] PUBLISH         = Resp.bytes("PUBLISH");
+    private static final byte[] SUBSCRIBE       = Resp.bytes("SUBSCRIBE");
+
+    private record Outgoing(byte[] channel, byte[] envelope) {}
+
+    private final Logger                  log;
+    private final String                  host;
+    private final int                     port;
+    private final String                  password;
+    private final String                  prefix;
+    private final String                  serverName;
+    private final boolean                 embed;
+    private final BlockingQueue<Outgoing> queue;
+
+    private volatile boolean running;
+    private volatile Socket  subSocket;
+    private Thread           publisher;
+    private Thread           subscriber;
+    private InProcessBroker  embedded;
+    private long             dropped;  // publisher side only, logged on first drop
+    private String           rejected; // publisher thread only; last PUBLISH error logged
+
+    BrokerTransport(GlobalPost plugin) {
+        this(plugin.getLogger(), plugin.getConfigManager());
+    }
+
+    private BrokerTransport(Logger log, ConfigManager cfg) {
+        this(log, cfg.getBrokerHost(), cfg.getBrokerPort(), cfg.getBrokerPassword(), cfg.getBrokerChannelPrefix(),
+                cfg.getServerName(), cfg.getBrokerMaxPending(), cfg.isBrokerEmbedded());
+    }
+
+    /** Without a plugin, so tests can run it against an {@link InProcessBroker}. */
+    BrokerTransport(Logger log, String host, int port, String password, String prefix,
+                    String serverName, int maxPending, boolean embed) {
+        this.log        = log;
+        this.host       = host;
+        this.port       = port;
+        this.password   = password;
+        this.prefix     = prefix;
+        this.serverName = serverName;
+        this.embed      = embed;
+        this.queue      = new LinkedBlockingQueue<>(maxPending);
+    }
+
+    /*------------------------------------------------------------------------*/
+    @Override
+    public void start(Consumer<byte[]> inbound) {
+        if (embed) {
+            try {
+                embedded = new InProcessBroker(host, port, password);
+                log.info("Started in-process message broker on " + host + ":" + port);
+            }
+            catch (IOException ex) { log.severe("Could not start in-process broker: " + ex.getMessage()); }
+        }
+
+        running    = true;
+        publisher  = daemon("GlobalPost-BrokerPublisher", this::publishLoop);
+        subscriber = daemon("GlobalPost-BrokerSubscriber", () -> subscribeLoop(inbound));
+    }
+
+    @Override
+    public void publish(String target, byte[] envelope) {
+        if (queue.offer(new Outgoing(Resp.bytes(prefix + ":" + target), envelope))) return;
+        synchronized (this) {
+            if (dropped++ == 0) log.warning("Broker publish queue is full, dropping messages");
+        }
+    }
+
+    /** Gives the publisher a few seconds to drain, then tears both connections down. */
+    @Override
+    public void close() {
+        running = false;
+        closeQuietly(subSocket);
+        try {
+            if (publisher != null) publisher.join(3000);
+        }
+        catch (InterruptedException ex) { Thread.currentThread().interrupt(); }
+        if (publisher != null && publisher.isAlive()) publisher.interrupt();
+        if (!queue.isEmpty())
+            log.warning(queue.size() + " broker message(s) were never published");
+        if (embedded != null) embedded.close();
+    }
+
+    @Override public String name()    { return "broker " + host + ":" + port; }
+    @Override public int    pending() { return queue.size(); }
+
+    /*------------------------------------------------------------------------*/
+    private void publishLoop() {
+        List<Outgoing> batch = new ArrayList<>(PIPELINE);
+        long backoff = MIN_BACKOFF_MS;
+        boolean down = false;
+
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try (Socket s = connect()) {
+                OutputStream out = new BufferedOutputStream(s.getOutputStream());
+                InputStream  in  = new BufferedInputStream(s.getInputStream());
+                if (down) log.info("Broker publisher reconnected");
+                down = false;
+                backoff = MIN_BACKOFF_MS;
+
+                while (running || !queue.isEmpty() || !batch.isEmpty()) {
+                    if (batch.isEmpty()) {
+                        Outgoing first = queue.poll(250, TimeUnit.MILLISECONDS);
+                        if (first == null) continue;
+                        batch.add(first);
+                        queue.drainTo(batch, PIPELINE - 1);
+                    }
+                    for (Outgoing o : batch) Resp.writeCommand(out, PUBLISH, o.channel(), o.envelope());
+                    out.flush();
+                    readPublishReplies(in, batch.size());
+                    batch.clear();
+                }
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            catch (Resp.ServerError ex) { // AUTH refused; retrying can't fix it
+                halt("publisher", ex);
+                return;
+            }
+            catch (IOException ex) {
+                if (!running) return; // shutting down with the broker unreachable; close() reports the rest
+                if (!down) log.warning("Broker publisher disconnected (" + ex.getMessage() + "), retrying");
+                down = true;
+                if (!sleep(backoff)) return;
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    /**
+     * Reads one reply per pipelined PUBLISH. A rejected one (ACL, OOM) is dropped
+     * rather than resent: the broker would refuse it again.
+     */
+    private void readPublishReplies(InputStream in, int count) throws IOException {
+        int failed = 0;
+        Resp.ServerError last = null;
+        for (int i = 0; i < count; i++) {
+            try { Resp.read(in); }
+            catch (Resp.ServerError ex) { failed++; last = ex; } // the whole error line is consumed
+        }
+        if (last == null) return;
+        if (!last.getMessage().equals(rejected)) // once per distinct error, not once per batch
+            log.warning("Broker rejected " + failed + " of " + count + " publish(es), dropping them: " + last.getMessage());
+        rejected = last.getMessage();
+    }
+
+    private void subscribeLoop(Consumer<byte[]> inbound) {
+        byte[] own = Resp.bytes(prefix + ":" + serverName);
+        byte[] all = Resp.bytes(prefix + ":" + PluginMessageHandler.BROADCAST);
+        long backoff = MIN_BACKOFF_MS;
+        boolean down = false;
+
+        while (running) {
+            try (Socket s = connect()) {
+                subSocket = s;
+                OutputStream out = new BufferedOutputStream(s.getOutputStream());
+                InputStream  in  = new BufferedInputStream(s.getInputStream());
+                Resp.writeCommand(out, SUBSCRIBE, own, all);
+                out.flush();
+                if (down) log.info("Broker subscriber reconnected");
+                down = false;
+                backoff = MIN_BACKOFF_MS;
+
+                while (running) {
+                    if (Resp.read(in) instanceof List<?> push && push.size() == 3
+                            && "message".equals(Resp.string(push.get(0))) && push.get(2) instanceof byte[] envelope)
+                        inbound.accept(envelope);
+                }
+            }
+            catch (Resp.ServerError ex) { // AUTH or SUBSCRIBE refused
+                halt("subscriber", ex);
+                return;
+            }
+            catch (IOException ex) {
+                if (!running) return;
+                if (!down) log.warning("Broker subscriber disconnected (" + ex.getMessage() + "), retrying");
+                down = true;
+                if (!sleep(backoff)) return;
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    /** Stops both loops after the broker refused this server; queued messages stay unsent. */
+    private void halt(String side, Resp.ServerError ex) {
+        synchronized (this) {
+            if (!running) return;
+            running = false;
+        }
+        log.severe("Broker refused the " + side + " (" + ex.getMessage() + "); broker messaging is stopped until the next restart");
+        closeQuietly(subSocket);
+    }
+
+    /** False once closed, or after the broker refused AUTH or SUBSCRIBE. */
+    boolean isRunning() { return running; }
+
+    /*------------------------------------------------------------------------*/
+    private Socket connect() throws IOException {
+        Socket s = new Socket();
+        try {
+            s.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT);
+            s.setTcpNoDelay(true);
+            s.setKeepAlive(true);
+            if (!password.isEmpty()) {
+                OutputStream out = s.getOutputStream();
+                Resp.writeCommand(out, Resp.bytes("AUTH"), Resp.bytes(password));
+                out.flush();
+                Resp.read(s.getInputStream()); // throws on -ERR; no buffering yet, nothing is over‑read
+            }
+            return s;
+        }
+        catch (IOException ex) {
+            closeQuietly(s);
+            throw ex;
+        }
+    }
+
+    private static boolean sleep(long ms) {
+        try { Thread.sleep(ms); return true; }
+        catch (InterruptedException ex) { Thread.currentThread().interrupt(); return false; }
+    }
+
+    private static void closeQuietly(Socket s) {
+        if (s == null) return;
+        try { s.close(); } catch (IOException ignored) { /* closing anyway */ }
+    }
+
+    private static Thread daemon(String name, Runnable body) {
+        Thread t = new Thread(body, name);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+}
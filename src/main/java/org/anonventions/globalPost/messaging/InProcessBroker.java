@@ -0,0 +1,192 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/messaging/InProcessBroker.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.messaging;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stand‑in for a Redis server inside this JVM, for tests and single‑machine
+ * networks (messaging.broker.embedded). Speaks just enough RESP for
+ * BrokerTransport: PING, AUTH, PUBLISH, SUBSCRIBE and QUIT.
+ * No persistence, no pattern subscriptions; one thread per client.
+ * With a password set, clients must AUTH before PUBLISH or SUBSCRIBE.
+ */
+public class InProcessBroker implements Closeable {
+
+    private final ServerSocket                    server;
+    private final String                          password; // empty = AUTH accepts anything
+    private final Map<String, Set<Client>>        channels = new ConcurrentHashMap<>();
+    private final Set<Client>                     clients  = ConcurrentHashMap.newKeySet();
+    private volatile boolean                      open     = true;
+    private volatile String                       publishError;
+
+    /** Binds {@code host:port}; port 0 picks a free one (see {@link #getPort()}). */
+    public InProcessBroker(String host, int port) throws IOException {
+        this(host, port, "");
+    }
+
+    public InProcessBroker(String host, int port, String password) throws IOException {
+        this.password = password == null ? "" : password;
+        server = new ServerSocket();
+        server.setReuseAddress(true); // a restarted broker gets its port back straight away
+        server.bind(new InetSocketAddress(host, port));
+        Thread acceptor = new Thread(this::acceptLoop, "GlobalPost-Broker");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() { return server.getLocalPort(); }
+
+    /** Number of subscribers on {@code channel}; lets tests wait until a transport is ready. */
+    public int subscribers(String channel) {
+        Set<Client> subs = channels.get(channel);
+        return subs == null ? 0 : subs.size();
+    }
+
+    /** Answers every PUBLISH with {@code -error} instead of delivering it; null delivers again. Tests only. */
+    void rejectPublishes(String error) { publishError = error; }
+
+    @Override
+    public void close() {
+        open = false;
+        try { server.close(); } catch (IOException ignored) { /* closing anyway */ }
+        clients.forEach(Client::close);
+    }
+
+    /*------------------------------------------------------------------------*/
+    private void acceptLoop() {
+        while (open) {
+            try {
+                Client c = new Client(server.accept());
+                clients.add(c);
+                Thread t = new Thread(c::serve, "GlobalPost-Broker-Client");
+                t.setDaemon(true);
+                t.start();
+            }
+            catch (IOException ex) {
+                if (!open) return;
+            }
+        }
+    }
+
+    private int publish(String channel, byte[] message) {
+        Set<Client> subs = channels.get(channel);
+        if (subs == null) return 0;
+        int delivered = 0;
+        for (Client sub : subs) if (sub.push(channel, message)) delivered++;
+        return delivered;
+    }
+
+    /*------------------------------------------------------------------------*/
+    private final class Client {
+        private final Socket       socket;
+        private final OutputStream out;
+        private int                subscriptions;
+        private boolean            authed = password.isEmpty();
+
+        Client(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out    = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        void serve() {
+            try (InputStream in = new BufferedInputStream(socket.getInputStream())) {
+                while (open) {
+                    if (!(Resp.read(in) instanceof List<?> cmd) || cmd.isEmpty()) {
+                        reply(o -> Resp.writeError(o, "ERR expected a command array"));
+                        continue;
+                    }
+                    String name = Resp.string(cmd.get(0)).toUpperCase(Locale.ROOT);
+                    if (!authed && (name.equals("PUBLISH") || name.equals("SUBSCRIBE"))) {
+                        reply(o -> Resp.writeError(o, "NOAUTH Authentication required."));
+                        continue;
+                    }
+                    switch (name) {
+                        case "PING"      -> reply(o -> Resp.writeSimple(o, "PONG"));
+                        case "AUTH"      -> {
+                            if (password.isEmpty() || (cmd.size() == 2 && password.equals(Resp.string(cmd.get(1))))) {
+                                authed = true;
+                                reply(o -> Resp.writeSimple(o, "OK"));
+                            }
+                            else reply(o -> Resp.writeError(o, "WRONGPASS invalid username-password pair or user is disabled."));
+                        }
+                        case "PUBLISH"   -> {
+                            if (cmd.size() != 3 || !(cmd.get(2) instanceof byte[] msg)) {
+                                reply(o -> Resp.writeError(o, "ERR wrong number of arguments for 'publish'"));
+                                continue;
+                            }
+                            String error = publishError;
+                            if (error != null) {
+                                reply(o -> Resp.writeError(o, error));
+                                continue;
+                            }
+                            int n = publish(Resp.string(cmd.get(1)), msg);
+                            reply(o -> Resp.writeInteger(o, n));
+                        }
+                        case "SUBSCRIBE" -> {
+                            for (Object ch : cmd.subList(1, cmd.size())) {
+                                String channel = Resp.string(ch);
+                                if (channels.computeIfAbsent(channel, k -> ConcurrentHashMap.newKeySet()).add(this))
+                                    subscriptions++;
+                                int count = subscriptions;
+                                reply(o -> {
+                                    Resp.writeArrayHeader(o, 3);
+                                    Resp.writeBulk(o, Resp.bytes("subscribe"));
+                                    Resp.writeBulk(o, Resp.bytes(channel));
+                                    Resp.writeInteger(o, count);
+                                });
+                            }
+                        }
+                        case "QUIT"      -> { reply(o -> Resp.writeSimple(o, "OK")); return; }
+                        default          -> reply(o -> Resp.writeError(o, "ERR unknown command '" + name + "'"));
+                    }
+                }
+            }
+            catch (IOException ex) { /* client went away */ }
+            finally { close(); }
+        }
+
+        /** Delivers one pub/sub message; false if the client is gone. */
+        boolean push(String channel, byte[] message) {
+            try {
+                reply(o -> {
+                    Resp.writeArrayHeader(o, 3);
+                    Resp.writeBulk(o, Resp.bytes("message"));
+                    Resp.writeBulk(o, Resp.bytes(channel));
+                    Resp.writeBulk(o, message);
+                });
+                return true;
+            }
+            catch (IOException ex) {
+                close();
+                return false;
+            }
+        }
+
+        @FunctionalInterface
+        private interface Reply { void write(OutputStream o) throws IOException; }
+
+        /** Replies and pushes from publishers on other threads must not interleave. */
+        private void reply(Reply r) throws IOException {
+            synchronized (out) {
+                r.write(out);
+                out.flush();
+            }
+        }
+
+        void close() {
+            clients.remove(this);
+            channels.values().forEach(subs -> subs.remove(this));
+            try { socket.close(); } catch (IOException ignored) { /* closing anyway */ }
+        }
+    }
+}
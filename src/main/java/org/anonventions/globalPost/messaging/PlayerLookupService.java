@@ -0,0 +1,172 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/messaging/PlayerLookupService.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.messaging;
+
+import org.anonventions.globalPost.GlobalPost;
+import org.anonventions.globalPost.io.Wire;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asks another server about players, over globalpost:main.
+ * – One request carries any number of names; one reply answers all of them.
+ * – Replies are matched by correlation id; unanswered requests fail with
+ *   TimeoutException after messaging.lookup_timeout_ms.
+ * – Payload after the envelope (str = varint length + UTF‑8):
+ * <pre>
+ *   version byte | kind byte | long correlation id
+ *   request : origin server str | varint n | n × name str
+ *   response: varint n | n × (status byte | uuid as 2 longs unless UNKNOWN)
+ * </pre>
+ *   Replies list results in request order, so names are not echoed back.
+ */
+public class PlayerLookupService {
+
+    static final int          VERSION   = 1;
+    private static final byte REQUEST   = 0;
+    private static final byte RESPONSE  = 1;
+    private static final int  MAX_NAMES = 256;
+
+    public enum Status { UNKNOWN, OFFLINE, ONLINE }
+
+    /** {@code uuid} is null when the server has never seen the player. */
+    public record Result(String name, Status status, UUID uuid) {}
+
+    private record Pending(List<String> names, CompletableFuture<Map<String, Result>> future) {}
+
+    private final GlobalPost            plugin;
+    private final PluginMessageHandler  messages;
+    private final Map<Long, Pending>    pending = new ConcurrentHashMap<>();
+    private final AtomicLong            nextId  = new AtomicLong(ThreadLocalRandom.current().nextLong());
+
+    PlayerLookupService(GlobalPost plugin, PluginMessageHandler messages) {
+        this.plugin   = plugin;
+        this.messages = messages;
+    }
+
+    /*------------------------------------------------------------------------*/
+    /**
+     * Looks up {@code names} on {@code server} in one round trip. The map is keyed
+     * by the names as given, in order; this server is answered without messaging.
+     */
+    public CompletableFuture<Map<String, Result>> lookup(String server, Collection<String> names) {
+        List<String> list = List.copyOf(new LinkedHashSet<>(names));
+        if (list.isEmpty()) return CompletableFuture.completedFuture(Map.of());
+        if (list.size() > MAX_NAMES)
+            return CompletableFuture.failedFuture(new IllegalArgumentException("At most " + MAX_NAMES + " names per lookup"));
+
+        String target = plugin.getConfigManager().normalised(server);
+        if (target.equals(plugin.getConfigManager().getServerName())) {
+            if (Bukkit.isPrimaryThread()) return CompletableFuture.completedFuture(toMap(list, resolveLocal(list)));
+            CompletableFuture<Map<String, Result>> local = new CompletableFuture<>();
+            Bukkit.getScheduler().runTask(plugin, () -> local.complete(toMap(list, resolveLocal(list))));
+            return local;
+        }
+
+        long id = nextId.incrementAndGet();
+        CompletableFuture<Map<String, Result>> future = new CompletableFuture<>();
+        pending.put(id, new Pending(list, future));
+
+        String origin = plugin.getConfigManager().getServerName();
+        messages.send(PluginMessageHandler.Subchannel.PLAYER_LOOKUP, target, out -> {
+            out.writeByte(VERSION);
+            out.writeByte(REQUEST);
+            out.writeLong(id);
+            Wire.writeString(out, origin);
+            Wire.writeVarInt(out, list.size());
+            for (String name : list) Wire.writeString(out, name);
+        });
+
+        return future.orTimeout(plugin.getConfigManager().getLookupTimeoutMs(), TimeUnit.MILLISECONDS)
+                .whenComplete((r, ex) -> pending.remove(id));
+    }
+
+    public CompletableFuture<Result> lookup(String server, String name) {
+        return lookup(server, List.of(name)).thenApply(m -> m.get(name));
+    }
+
+    int pendingCount() { return pending.size(); }
+
+    /*------------------------------------------------------------------------*/
+    /** Main thread, called by PluginMessageHandler after the envelope was read. */
+    void handle(DataInputStream in) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            plugin.getLogger().warning("Ignoring PlayerLookup v" + version + " (this server speaks v" + VERSION + ")");
+            return;
+        }
+        byte kind = in.readByte();
+        long id   = in.readLong();
+        if (kind == REQUEST) answer(id, in);
+        else if (kind == RESPONSE) complete(id, in);
+    }
+
+    private void answer(long id, DataInputStream in) throws IOException {
+        String origin = Wire.readString(in);
+        int n = Wire.readVarInt(in);
+        if (n > MAX_NAMES) throw new IOException("PlayerLookup with " + n + " names");
+        List<String> names = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) names.add(Wire.readString(in));
+
+        List<Result> results = resolveLocal(names);
+        messages.send(PluginMessageHandler.Subchannel.PLAYER_LOOKUP, origin, out -> {
+            out.writeByte(VERSION);
+            out.writeByte(RESPONSE);
+            out.writeLong(id);
+            Wire.writeVarInt(out, results.size());
+            for (Result r : results) {
+                out.writeByte(r.status().ordinal());
+                if (r.status() != Status.UNKNOWN) Wire.writeUUID(out, r.uuid());
+            }
+        });
+    }
+
+    private void complete(long id, DataInputStream in) throws IOException {
+        Pending p = pending.remove(id);
+        if (p == null) return; // timed out, or meant for a previous run
+
+        int n = Wire.readVarInt(in);
+        if (n != p.names().size()) {
+            p.future().completeExceptionally(new IOException("PlayerLookup reply has " + n + " results for " + p.names().size() + " names"));
+            return;
+        }
+        List<Result> results = new ArrayList<>(n);
+        for (String name : p.names()) {
+            int s = in.readUnsignedByte();
+            Status status = s < Status.values().length ? Status.values()[s] : Status.UNKNOWN;
+            results.add(new Result(name, status, status == Status.UNKNOWN ? null : Wire.readUUID(in)));
+        }
+        p.future().complete(toMap(p.names(), results));
+    }
+
+    /*------------------------------------------------------------------------*/
+    /** Main thread; only consults memory (online players and the profile cache), never Mojang. */
+    private static List<Result> resolveLocal(List<String> names) {
+        List<Result> out = new ArrayList<>(names.size());
+        for (String name : names) {
+            Player online = Bukkit.getPlayerExact(name);
+            if (online != null) { out.add(new Result(name, Status.ONLINE, online.getUniqueId())); continue; }
+            OfflinePlayer op = Bukkit.getOfflinePlayerIfCached(name);
+            out.add(op != null ? new Result(name, Status.OFFLINE, op.getUniqueId())
+                               : new Result(name, Status.UNKNOWN, null));
+        }
+        return out;
+    }
+
+    private static Map<String, Result> toMap(List<String> names, List<Result> results) {
+        Map<String, Result> map = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) map.put(names.get(i), results.get(i));
+        return map;
+    }
+}
@@ -1,68 +1,171 @@
 package org.anonventions.globalPost.messaging;
 
 import org.anonventions.globalPost.GlobalPost;
+import org.anonventions.globalPost.io.Wire;
+import org.anonventions.globalPost.metrics.MetricsRegistry;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
-import org.bukkit.plugin.messaging.PluginMessageListener;
 
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
-import java.io.IOException;
+import java.io.*;
+import java.util.UUID;
 
-public class PluginMessageHandler implements PluginMessageListener {
+/**
+ * globalpost:main messaging.
+ * Every message is an envelope followed by the subchannel's payload:
+ * <pre>
+ *   envelope version byte | subchannel id byte | target server str ("ALL" = broadcast)
+ * </pre>
+ * (str = varint length + UTF‑8.) Envelopes of another version are dropped, so
+ * a mixed network logs instead of misreading. The transport (messaging.transport)
+ * routes on the target; receivers also drop messages not meant for them.
+ * Handlers always run on the main thread.
+ */
+public class PluginMessageHandler {
 
-    private final GlobalPost plugin;
+    public static final String CHANNEL   = "globalpost:main";
+    public static final String BROADCAST = "ALL";
+
+    static final int ENVELOPE_VERSION = 1;
+
+    /** Ids are part of the wire format: never renumber or reuse, only add. 2 was MailInvalidate. */
+    enum Subchannel {
+        MAIL_NOTIFICATION(1, "MailNotification"),
+        MAIL_INVALIDATE_ALL(3, "MailInvalidateAll"),
+        PLAYER_LOOKUP(4, "PlayerLookup");
+
+        final int    id;
+        final String label; // metrics and logs
+
+        Subchannel(int id, String label) {
+            this.id    = id;
+            this.label = label;
+        }
+
+        static Subchannel fromId(int id) {
+            for (Subchannel s : values()) if (s.id == id) return s;
+            return null;
+        }
+    }
+
+    private final GlobalPost          plugin;
+    private final PlayerLookupService lookups;
+    private final Transport           transport;
+
+    private final MetricsRegistry.Family<MetricsRegistry.Counter> sent, received;
 
     public PluginMessageHandler(GlobalPost plugin) {
-        this.plugin = plugin;
+        this.plugin    = plugin;
+        this.lookups   = new PlayerLookupService(plugin, this);
+        this.transport = plugin.getConfigManager().getMessagingTransport().equals("broker")
+                ? new BrokerTransport(plugin)
+                : new PluginMessageTransport(plugin);
+
+        MetricsRegistry metrics = plugin.getMetrics();
+        sent     = metrics.counter("messages_sent_total", "Cross-server messages handed to the transport", "subchannel");
+        received = metrics.counter("messages_received_total", "Cross-server messages handled here", "subchannel");
+        metrics.gauge("messages_pending", "Messages waiting for a route (no carrier, broker down)", this::getPendingMessages);
     }
 
-    @Override
-    public void onPluginMessageReceived(String channel, Player player, byte[] message) {
-        if (!channel.equals("globalpost:main")) {
-            return;
-        }
+    public void start() {
+        transport.start(this::receive);
+        plugin.getLogger().info("Cross-server messaging via " + transport.name());
+    }
+
+    public void close() { transport.close(); }
 
+    public PlayerLookupService getPlayerLookup() { return lookups; }
+
+    /** Messages waiting for a route (no carrier online, broker unreachable). */
+    public int getPendingMessages() { return transport.pending(); }
+
+    /** Main thread. With plugin messages, the joining player carries whatever was queued. */
+    public void onPlayerJoin(Player player) { transport.onPlayerJoin(player); }
+
+    /** Any thread; dispatch happens on the main thread. */
+    private void receive(byte[] message) {
+        if (Bukkit.isPrimaryThread()) { dispatch(message); return; }
+        if (plugin.isEnabled()) Bukkit.getScheduler().runTask(plugin, () -> dispatch(message));
+    }
+
+    private void dispatch(byte[] message) {
         try {
-            ByteArrayInputStream stream = new ByteArrayInputStream(message);
-            DataInputStream in = new DataInputStream(stream);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(message));
 
-            String subChannel = in.readUTF();
+            int version = in.readUnsignedByte();
+            if (version != ENVELOPE_VERSION) {
+                plugin.getLogger().warning("Ignoring plugin message envelope v" + version
+                        + " (this server speaks v" + ENVELOPE_VERSION + "); update GlobalPost on every server");
+                received.labels("unknown").inc();
+                return;
+            }
+            int id = in.readUnsignedByte();
+            String target = Wire.readString(in);
+            if (!target.equals(BROADCAST) && !target.equals(plugin.getConfigManager().getServerName())) {
+                return;
+            }
 
+            Subchannel subChannel = Subchannel.fromId(id);
+            if (subChannel == null) {
+                plugin.getLogger().warning("Unknown plugin message subchannel id: " + id);
+                received.labels("unknown").inc();
+                return;
+            }
             switch (subChannel) {
-                case "MailNotification":
-                    handleMailNotification(in, player);
-                    break;
-                case "PlayerLookup":
-                    handlePlayerLookup(in, player);
-                    break;
-                default:
-                    plugin.getLogger().warning("Unknown plugin message subchannel: " + subChannel);
-                    break;
+                case MAIL_NOTIFICATION   -> handleMailNotification(in);
+                case MAIL_INVALIDATE_ALL -> plugin.getMailboxManager().invalidateAllMailCounts();
+                case PLAYER_LOOKUP       -> lookups.handle(in);
             }
+            received.labels(subChannel.label).inc();
 
         } catch (IOException e) {
             plugin.getLogger().severe("Error handling plugin message: " + e.getMessage());
         }
     }
 
-    private void handleMailNotification(DataInputStream in, Player player) throws IOException {
-        String recipientName = in.readUTF();
+    private void handleMailNotification(DataInputStream in) throws IOException {
+        UUID recipient = Wire.readUUID(in);
         int mailCount = in.readInt();
+        long firstSavedAt = in.available() >= Long.BYTES ? in.readLong() : 0; // absent from older senders
+        plugin.getMailboxManager().onMailNotification(recipient, mailCount, firstSavedAt);
+    }
 
-        Player recipient = plugin.getServer().getPlayer(recipientName);
-        if (recipient != null) {
-            recipient.sendMessage("§6[Mail] §aYou have " + mailCount + " new mail(s)! Use /post to check.");
-        }
+    /*------------------------------------------------------------------------*/
+    /**
+     * {@code count} new mails for {@code recipient} on {@code server}: 16‑byte UUID + int
+     * + long epoch ms of the first save. Older receivers ignore the trailing long.
+     */
+    public void sendMailNotification(UUID recipient, String server, int count, long firstSavedAt) {
+        send(Subchannel.MAIL_NOTIFICATION, server, out -> {
+            Wire.writeUUID(out, recipient);
+            out.writeInt(count);
+            out.writeLong(firstSavedAt);
+        });
     }
 
-    private void handlePlayerLookup(DataInputStream in, Player player) throws IOException {
-        String requestId = in.readUTF();
-        String playerName = in.readUTF();
+    /** After a bulk send: {@code server} drops every cached count instead of one message per recipient. */
+    public void sendCountInvalidationAll(String server) {
+        send(Subchannel.MAIL_INVALIDATE_ALL, server, out -> {});
+    }
 
-        Player target = plugin.getServer().getPlayer(playerName);
-        boolean online = target != null;
+    @FunctionalInterface
+    interface Payload { void write(DataOutputStream out) throws IOException; }
 
-        // Send response back through plugin messaging
-        // This would be implemented based on your specific proxy setup
+    /** Encodes the envelope and hands it to the transport; any thread. */
+    void send(Subchannel subChannel, String target, Payload payload) {
+        byte[] data;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(ENVELOPE_VERSION);
+            out.writeByte(subChannel.id);
+            Wire.writeString(out, target);
+            payload.write(out);
+            data = bytes.toByteArray();
+        } catch (IOException e) {
+            plugin.getLogger().severe("Error encoding plugin message: " + e.getMessage());
+            return;
+        }
+        sent.labels(subChannel.label).inc();
+        transport.publish(target, data);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,83 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/messaging/PluginMessageTransport.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.messaging;
+
+import org.anonventions.globalPost.GlobalPost;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.messaging.PluginMessageListener;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * Bukkit plugin messages on globalpost:main, routed by the proxy.
+ * – Messages ride on any online player's connection.
+ * – Without anyone online there is no route, so messages wait in an outbox
+ *   (notifications.max_queued, oldest dropped first) for the next join.
+ */
+class PluginMessageTransport implements Transport, PluginMessageListener {
+
+    private final GlobalPost      plugin;
+    private final Deque<byte[]>   outbox = new ArrayDeque<>(); // main thread only
+    private int                   dropped;
+    private Consumer<byte[]>      inbound;
+
+    PluginMessageTransport(GlobalPost plugin) { this.plugin = plugin; }
+
+    @Override
+    public void start(Consumer<byte[]> inbound) {
+        this.inbound = inbound;
+        plugin.getServer().getMessenger().registerOutgoingPluginChannel(plugin, PluginMessageHandler.CHANNEL);
+        plugin.getServer().getMessenger().registerIncomingPluginChannel(plugin, PluginMessageHandler.CHANNEL, this);
+    }
+
+    @Override
+    public void onPluginMessageReceived(String channel, Player player, byte[] message) {
+        if (channel.equals(PluginMessageHandler.CHANNEL)) inbound.accept(message);
+    }
+
+    @Override
+    public void publish(String target, byte[] envelope) {
+        if (!plugin.isEnabled()) return;
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            Player carrier = Bukkit.getOnlinePlayers().stream().findFirst().orElse(null);
+            if (carrier != null) {
+                carrier.sendPluginMessage(plugin, PluginMessageHandler.CHANNEL, envelope);
+            } else {
+                queue(envelope);
+            }
+        });
+    }
+
+    /** Main thread. Oldest messages are dropped once the outbox is full. */
+    private void queue(byte[] data) {
+        if (outbox.size() >= plugin.getConfigManager().getNotifyMaxQueued()) {
+            outbox.pollFirst();
+            if (dropped++ == 0) plugin.getLogger().warning("Plugin message outbox is full, dropping the oldest messages");
+        }
+        outbox.addLast(data);
+    }
+
+    /** Sends everything queued while nobody was online through {@code carrier}. */
+    @Override
+    public void onPlayerJoin(Player carrier) {
+        if (outbox.isEmpty() || !carrier.isOnline()) return;
+        if (dropped > 0) plugin.getLogger().warning(dropped + " plugin message(s) were dropped while nobody was online");
+        dropped = 0;
+        while (!outbox.isEmpty()) carrier.sendPluginMessage(plugin, PluginMessageHandler.CHANNEL, outbox.pollFirst());
+    }
+
+    @Override
+    public void close() {
+        plugin.getServer().getMessenger().unregisterOutgoingPluginChannel(plugin, PluginMessageHandler.CHANNEL);
+        plugin.getServer().getMessenger().unregisterIncomingPluginChannel(plugin, PluginMessageHandler.CHANNEL, this);
+        if (!outbox.isEmpty())
+            plugin.getLogger().warning(outbox.size() + " plugin message(s) were never sent: no player was online");
+    }
+
+    @Override public String name()    { return "plugin-messages"; }
+    @Override public int    pending() { return outbox.size(); }
+}
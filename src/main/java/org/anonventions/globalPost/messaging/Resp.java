@@ -0,0 +1,98 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/messaging/Resp.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.messaging;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RESP2 codec (the Redis wire protocol), enough for AUTH, PING,
+ * PUBLISH and SUBSCRIBE. Bulk strings stay byte[] so payloads are binary‑safe.
+ * Replies decode to: String (simple), Long (integer), byte[] (bulk, null if nil),
+ * List&lt;Object&gt; (array), or throw {@link ServerError} for "-" replies.
+ */
+final class Resp {
+
+    /** A "-ERR ..." reply from the server. */
+    static final class ServerError extends IOException {
+        ServerError(String message) { super(message); }
+    }
+
+    private static final int MAX_BULK = 16 * 1024 * 1024;
+
+    private Resp() {}
+
+    /*------------------------------------------------------------------------*/
+    /** Writes one command as an array of bulk strings; the caller flushes. */
+    static void writeCommand(OutputStream out, byte[]... parts) throws IOException {
+        out.write(('*' + Integer.toString(parts.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        for (byte[] part : parts) writeBulk(out, part);
+    }
+
+    static void writeBulk(OutputStream out, byte[] data) throws IOException {
+        out.write(('$' + Integer.toString(data.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(data);
+        out.write('\r');
+        out.write('\n');
+    }
+
+    static void writeSimple(OutputStream out, String s)  throws IOException { line(out, '+', s); }
+    static void writeError(OutputStream out, String s)   throws IOException { line(out, '-', s); }
+    static void writeInteger(OutputStream out, long n)   throws IOException { line(out, ':', Long.toString(n)); }
+    static void writeArrayHeader(OutputStream out, int n) throws IOException { line(out, '*', Integer.toString(n)); }
+
+    private static void line(OutputStream out, char type, String s) throws IOException {
+        out.write((type + s + "\r\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    static byte[] bytes(String s) { return s.getBytes(StandardCharsets.UTF_8); }
+
+    /*------------------------------------------------------------------------*/
+    static Object read(InputStream in) throws IOException {
+        int type = in.read();
+        if (type < 0) throw new EOFException("Connection closed");
+        String line = readLine(in);
+        switch (type) {
+            case '+': return line;
+            case '-': throw new ServerError(line);
+            case ':': return Long.parseLong(line);
+            case '$': {
+                int len = Integer.parseInt(line);
+                if (len < 0) return null;
+                if (len > MAX_BULK) throw new IOException("Bulk string of " + len + " bytes");
+                byte[] data = in.readNBytes(len);
+                if (data.length < len || in.read() != '\r' || in.read() != '\n') throw new EOFException("Truncated bulk string");
+                return data;
+            }
+            case '*': {
+                int n = Integer.parseInt(line);
+                if (n < 0) return null;
+                List<Object> items = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    try { items.add(read(in)); }
+                    catch (ServerError e) { items.add(e); } // errors inside arrays don't end the stream
+                }
+                return items;
+            }
+            default: throw new IOException("Unexpected RESP type '" + (char) type + "'");
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c < 0) throw new EOFException("Connection closed");
+            sb.append((char) c);
+        }
+        if (in.read() != '\n') throw new IOException("Malformed RESP line");
+        return sb.toString();
+    }
+
+    static String string(Object reply) {
+        return reply instanceof byte[] b ? new String(b, StandardCharsets.UTF_8) : String.valueOf(reply);
+    }
+}
@@ -0,0 +1,34 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/messaging/Transport.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.messaging;
+
+import org.bukkit.entity.Player;
+
+import java.util.function.Consumer;
+
+/**
+ * Moves encoded globalpost:main envelopes between servers.
+ * – {@link PluginMessageTransport}: rides on player connections through the proxy.
+ * – {@link BrokerTransport}: Redis‑compatible pub/sub, works with empty servers.
+ * Envelopes are opaque here; PluginMessageHandler encodes and dispatches them.
+ */
+interface Transport {
+
+    /** Begins delivering inbound envelopes to {@code inbound}, on any thread. */
+    void start(Consumer<byte[]> inbound);
+
+    /** Queues one envelope for {@code target} (a canonical server name or "ALL"). Any thread. */
+    void publish(String target, byte[] envelope);
+
+    /** Sends what is still queued where possible and releases connections. */
+    void close();
+
+    String name();
+
+    /** Envelopes waiting for a route. */
+    int pending();
+
+    /** Main thread; a joining player can carry queued messages. */
+    default void onPlayerJoin(Player player) {}
+}
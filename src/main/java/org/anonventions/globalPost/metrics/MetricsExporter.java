@@ -0,0 +1,117 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/metrics/MetricsExporter.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+import org.anonventions.globalPost.GlobalPost;
+import org.anonventions.globalPost.config.ConfigManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the registry in Prometheus text format (metrics.export).
+ * – "file": rewrites metrics.file every interval_seconds via a temp file and an
+ *   atomic rename, for node_exporter's textfile collector.
+ * – "http": serves GET /metrics on http_bind:http_port with the JDK HTTP server.
+ * Both run on their own daemon thread, never on the main or DB threads.
+ */
+public class MetricsExporter {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final GlobalPost      plugin;
+    private final MetricsRegistry registry;
+    private ScheduledExecutorService writer;
+    private HttpServer               http;
+    private ExecutorService          httpThread;
+
+    public MetricsExporter(GlobalPost plugin, MetricsRegistry registry) {
+        this.plugin   = plugin;
+        this.registry = registry;
+    }
+
+    public void start() {
+        ConfigManager cfg = plugin.getConfigManager();
+        switch (cfg.getMetricsExport()) {
+            case "file" -> startFile(new File(plugin.getDataFolder(), cfg.getMetricsFile()).toPath(),
+                                     cfg.getMetricsIntervalSeconds());
+            case "http" -> startHttp(cfg.getMetricsHttpBind(), cfg.getMetricsHttpPort());
+            default     -> { }
+        }
+    }
+
+    /*------------------------------------------------------------------------*/
+    private void startFile(Path target, int intervalSeconds) {
+        writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "GlobalPost-Metrics");
+            t.setDaemon(true);
+            return t;
+        });
+        writer.scheduleWithFixedDelay(() -> writeFile(target), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        plugin.getLogger().info("Writing metrics to " + target + " every " + intervalSeconds + "s");
+    }
+
+    private void writeFile(Path target) {
+        try {
+            Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+            Files.writeString(tmp, render());
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException | RuntimeException ex) { plugin.getLogger().warning("Metrics export failed: " + ex); }
+    }
+
+    private void startHttp(String bind, int port) {
+        try {
+            http = HttpServer.create(new InetSocketAddress(bind, port), 0);
+        }
+        catch (IOException ex) {
+            plugin.getLogger().severe("Metrics endpoint could not bind " + bind + ":" + port + ": " + ex.getMessage());
+            return;
+        }
+        http.createContext("/metrics", exchange -> {
+            try {
+                if (!exchange.getRequestMethod().equals("GET")) { exchange.sendResponseHeaders(405, -1); return; }
+                byte[] body = render().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) { out.write(body); }
+            }
+            finally { exchange.close(); }
+        });
+        httpThread = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "GlobalPost-Metrics-HTTP");
+            t.setDaemon(true);
+            return t;
+        });
+        http.setExecutor(httpThread);
+        http.start();
+        plugin.getLogger().info("Serving metrics on http://" + bind + ":" + port + "/metrics");
+    }
+
+    private String render() {
+        StringBuilder out = new StringBuilder(8192);
+        registry.writePrometheus(out);
+        return out.toString();
+    }
+
+    /*------------------------------------------------------------------------*/
+    public void close() {
+        if (writer != null) writer.shutdownNow();
+        if (http != null) {
+            http.stop(0);
+            httpThread.shutdownNow();
+        }
+    }
+}
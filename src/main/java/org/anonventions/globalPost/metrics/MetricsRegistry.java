@@ -0,0 +1,200 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/metrics/MetricsRegistry.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.metrics;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * In‑process metrics: counters, fixed‑bucket histograms and gauges.
+ * – Updates are a LongAdder increment (plus a short bucket scan for histograms);
+ *   no locks, no allocation. Hot paths keep the labelled child, not the family.
+ * – Families are registered once; {@link Family#labels} creates children on demand.
+ * – {@link #writePrometheus} renders the text exposition format for the exporter.
+ */
+public class MetricsRegistry {
+
+    /** Seconds, 100µs … 10s. */
+    public static final double[] LATENCY_BUCKETS =
+            {0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+    /** Bytes, 64 B … 1 MiB. */
+    public static final double[] SIZE_BUCKETS =
+            {64, 256, 1024, 4096, 16384, 65536, 262144, 1048576};
+
+    private static final String PREFIX = "globalpost_";
+
+    private final Map<String, Family<?>> families = new ConcurrentSkipListMap<>();
+
+    /*------------------------------------------------------------------------*/
+    public Family<Counter> counter(String name, String help, String... labelNames) {
+        return register(new Family<>(PREFIX + name, help, "counter", labelNames, Counter::new));
+    }
+
+    public Family<Histogram> histogram(String name, String help, double[] buckets, String... labelNames) {
+        return register(new Family<>(PREFIX + name, help, "histogram", labelNames, () -> new Histogram(buckets)));
+    }
+
+    /** A value read at export time (queue depths, cache sizes). */
+    public void gauge(String name, String help, DoubleSupplier value) {
+        register(new Family<>(PREFIX + name, help, "gauge", new String[0], () -> new Gauge(value))).get();
+    }
+
+    /** A total some component already keeps (e.g. executor rejections), read at export time. */
+    public void counter(String name, String help, LongSupplier value) {
+        register(new Family<>(PREFIX + name, help, "counter", new String[0], () -> new Gauge(value::getAsLong))).get();
+    }
+
+    /** The family registered under {@code name} (without the globalpost_ prefix), or null. */
+    public Family<?> find(String name) { return families.get(PREFIX + name); }
+
+    /** Same name twice returns the first registration (e.g. after a reload). */
+    @SuppressWarnings("unchecked")
+    private <M> Family<M> register(Family<M> family) {
+        return (Family<M>) families.computeIfAbsent(family.name, k -> family);
+    }
+
+    /*------------------------------------------------------------------------*/
+    /** One metric name with its labelled children. */
+    public static final class Family<M> {
+        private final String   name, help, type;
+        private final String[] labelNames;
+        private final Supplier<M> factory;
+        private final Map<List<String>, M> children = new ConcurrentHashMap<>();
+
+        private Family(String name, String help, String type, String[] labelNames, Supplier<M> factory) {
+            this.name = name; this.help = help; this.type = type;
+            this.labelNames = labelNames; this.factory = factory;
+        }
+
+        /** Child for these label values (in the order the label names were given). */
+        public M labels(String... values) {
+            if (values.length != labelNames.length)
+                throw new IllegalArgumentException(name + " takes " + labelNames.length + " label(s)");
+            return children.computeIfAbsent(List.of(values), k -> factory.get());
+        }
+
+        /** The unlabelled child. */
+        public M get() { return labels(); }
+
+        /** Name without the globalpost_ prefix. */
+        String shortName() { return name.substring(PREFIX.length()); }
+        String type()      { return type; }
+
+        /** Snapshot of children by label values, sorted for stable output. */
+        public SortedMap<List<String>, M> children() {
+            SortedMap<List<String>, M> out = new TreeMap<>(Comparator.comparing(Object::toString));
+            out.putAll(children);
+            return out;
+        }
+    }
+
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+        public void inc()        { value.increment(); }
+        public void add(long n)  { value.add(n); }
+        public long get()        { return value.sum(); }
+    }
+
+    public static final class Gauge {
+        private final DoubleSupplier value;
+        private Gauge(DoubleSupplier value) { this.value = value; }
+        public double get() { return value.getAsDouble(); }
+    }
+
+    public static final class Histogram {
+        private final double[]    bounds;
+        private final LongAdder[] buckets; // last one is +Inf
+        private final LongAdder   count = new LongAdder();
+        private final DoubleAdder sum   = new DoubleAdder();
+
+        private Histogram(double[] bounds) {
+            this.bounds  = bounds;
+            this.buckets = new LongAdder[bounds.length + 1];
+            for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+        }
+
+        public void observe(double value) {
+            int i = 0;
+            while (i < bounds.length && value > bounds[i]) i++;
+            buckets[i].increment();
+            count.increment();
+            sum.add(value);
+        }
+
+        public void observeNanos(long nanos) { observe(nanos / 1e9); }
+
+        public long   count() { return count.sum(); }
+        public double sum()   { return sum.sum(); }
+        public double mean()  { long n = count(); return n == 0 ? 0 : sum() / n; }
+
+        /** Upper bound of the bucket holding quantile {@code q}; +Inf shows as the largest bound. */
+        public double quantile(double q) {
+            long n = count();
+            if (n == 0) return 0;
+            long rank = (long) Math.ceil(q * n), seen = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                seen += buckets[i].sum();
+                if (seen >= rank) return bounds[i];
+            }
+            return bounds[bounds.length - 1];
+        }
+    }
+
+    /** Families in name order. */
+    Collection<Family<?>> families() { return families.values(); }
+
+    /*------------------------------------------------------------------------*/
+    /** Prometheus text format 0.0.4. */
+    public void writePrometheus(StringBuilder out) {
+        for (Family<?> f : families.values()) {
+            out.append("# HELP ").append(f.name).append(' ').append(f.help).append('\n');
+            out.append("# TYPE ").append(f.name).append(' ').append(f.type).append('\n');
+            f.children().forEach((values, m) -> {
+                String labels = labels(f.labelNames, values, null);
+                if (m instanceof Counter c)
+                    out.append(f.name).append(labels).append(' ').append(c.get()).append('\n');
+                else if (m instanceof Gauge g)
+                    out.append(f.name).append(labels).append(' ').append(number(g.get())).append('\n');
+                else if (m instanceof Histogram h) {
+                    long cumulative = 0;
+                    for (int i = 0; i <= h.bounds.length; i++) {
+                        cumulative += h.buckets[i].sum();
+                        String le = i < h.bounds.length ? number(h.bounds[i]) : "+Inf";
+                        out.append(f.name).append("_bucket").append(labels(f.labelNames, values, le))
+                           .append(' ').append(cumulative).append('\n');
+                    }
+                    out.append(f.name).append("_sum").append(labels).append(' ').append(number(h.sum())).append('\n');
+                    out.append(f.name).append("_count").append(labels).append(' ').append(h.count()).append('\n');
+                }
+            });
+        }
+    }
+
+    private static String labels(String[] names, List<String> values, String le) {
+        if (names.length == 0 && le == null) return "";
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(names[i]).append("=\"").append(escape(values.get(i))).append('"');
+        }
+        if (le != null) sb.append(names.length > 0 ? "," : "").append("le=\"").append(le).append('"');
+        return sb.append('}').toString();
+    }
+
+    private static String escape(String v) {
+        return v.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String number(double v) {
+        if (Double.isNaN(v) || Double.isInfinite(v)) return Double.toString(v).replace("Infinity", "Inf");
+        return v == Math.rint(v) && Math.abs(v) < 1e15 ? Long.toString((long) v) : BigDecimal.valueOf(v).stripTrailingZeros().toPlainString();
+    }
+}
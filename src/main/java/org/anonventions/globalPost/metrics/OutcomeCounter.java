@@ -0,0 +1,35 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/metrics/OutcomeCounter.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.metrics;
+
+import org.anonventions.globalPost.concurrent.AsyncExecutor;
+
+import java.util.Locale;
+
+/**
+ * Counts how an async operation ended: one label value per result enum
+ * constant, plus "busy" (executor or write queue full) and "error" (any other
+ * exception). Children are resolved up front, so recording is one increment.
+ */
+public final class OutcomeCounter<E extends Enum<E>> {
+
+    private final MetricsRegistry.Counter[] byResult;
+    private final MetricsRegistry.Counter   busy, error;
+
+    /** @param family counter family with a single "result" label */
+    public OutcomeCounter(MetricsRegistry.Family<MetricsRegistry.Counter> family, Class<E> type) {
+        E[] results = type.getEnumConstants();
+        byResult = new MetricsRegistry.Counter[results.length];
+        for (int i = 0; i < results.length; i++) byResult[i] = family.labels(results[i].name().toLowerCase(Locale.ROOT));
+        busy  = family.labels("busy");
+        error = family.labels("error");
+    }
+
+    /** Suits {@code whenComplete((r, ex) -> ...)}. */
+    public void record(E result, Throwable ex) {
+        if (ex == null)                          byResult[result.ordinal()].inc();
+        else if (AsyncExecutor.isRejection(ex))  busy.inc();
+        else                                     error.inc();
+    }
+}
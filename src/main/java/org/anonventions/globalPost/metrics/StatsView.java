@@ -0,0 +1,70 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/metrics/StatsView.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/**
+ * Chat rendering of the registry for /post stats.
+ * – One line per metric; labelled histograms get one indented line per label.
+ * – Histograms show count, mean and p99 (bucket upper bound, so an estimate).
+ * – Names ending in _seconds print as ms, _bytes as B/KiB/MiB.
+ */
+public final class StatsView {
+
+    private StatsView() {}
+
+    /** @param prefix only metrics whose name starts with this ("" = all) */
+    public static List<String> render(MetricsRegistry registry, String prefix) {
+        List<String> lines = new ArrayList<>();
+        for (MetricsRegistry.Family<?> f : registry.families()) {
+            String name = f.shortName();
+            if (!name.startsWith(prefix)) continue;
+
+            var children = f.children();
+            if (children.isEmpty()) continue;
+
+            if (f.type().equals("histogram")) {
+                if (children.size() == 1 && children.firstKey().isEmpty()) {
+                    lines.add("§e" + name + "§7: " + histogram(name, (MetricsRegistry.Histogram) children.get(List.of())));
+                    continue;
+                }
+                lines.add("§e" + name + "§7:");
+                children.forEach((labels, h) -> lines.add(
+                        "  §f" + String.join("/", labels) + "§7: " + histogram(name, (MetricsRegistry.Histogram) h)));
+                continue;
+            }
+
+            StringJoiner values = new StringJoiner("§7, ");
+            children.forEach((labels, m) -> {
+                String value = format(name, m instanceof MetricsRegistry.Counter c
+                        ? c.get() : ((MetricsRegistry.Gauge) m).get());
+                values.add(labels.isEmpty() ? "§f" + value : "§f" + String.join("/", labels) + " §a" + value);
+            });
+            lines.add("§e" + name + "§7: " + values);
+        }
+        return lines;
+    }
+
+    private static String histogram(String name, MetricsRegistry.Histogram h) {
+        if (h.count() == 0) return "§8none yet";
+        return "§f" + h.count() + "§7× avg §a" + format(name, h.mean()) + "§7, p99 ≤ §a" + format(name, h.quantile(0.99));
+    }
+
+    private static String format(String name, double v) {
+        if (name.endsWith("_seconds")) {
+            double ms = v * 1000;
+            return ms < 10 ? String.format(Locale.ROOT, "%.2fms", ms) : String.format(Locale.ROOT, "%.0fms", ms);
+        }
+        if (name.endsWith("_bytes")) {
+            if (v < 1024)        return String.format(Locale.ROOT, "%.0fB", v);
+            if (v < 1024 * 1024) return String.format(Locale.ROOT, "%.1fKiB", v / 1024);
+            return String.format(Locale.ROOT, "%.1fMiB", v / (1024 * 1024));
+        }
+        return v == Math.rint(v) ? Long.toString((long) v) : String.format(Locale.ROOT, "%.2f", v);
+    }
+}
@@ -15,7 +15,8 @@ public class Mail {
     private String recipientName;
     private String sourceServer;
     private String destinationServer;
-    private List<ItemStack> items;
+    private List<ItemStack> items;     // null on listing headers until the mail is collected
+    private int itemCount;
     private String message;
     private Timestamp sentAt;
     private boolean collected;
@@ -32,6 +33,7 @@ public class Mail {
         this.sourceServer = sourceServer;
         this.destinationServer = destinationServer;
         this.items = items;
+        this.itemCount = countStacks(items);
         this.message = message;
         this.collected = false;
     }
@@ -59,7 +61,13 @@ public class Mail {
     public void setDestinationServer(String destinationServer) { this.destinationServer = destinationServer; }
 
     public List<ItemStack> getItems() { return items; }
-    public void setItems(List<ItemStack> items) { this.items = items; }
+    public void setItems(List<ItemStack> items) {
+        this.items = items;
+        if (items != null) this.itemCount = countStacks(items);
+    }
+
+    public int getItemCount() { return itemCount; }
+    public void setItemCount(int itemCount) { this.itemCount = itemCount; }
 
     public String getMessage() { return message; }
     public void setMessage(String message) { this.message = message; }
@@ -72,4 +80,11 @@ public class Mail {
 
     public Timestamp getCollectedAt() { return collectedAt; }
     public void setCollectedAt(Timestamp collectedAt) { this.collectedAt = collectedAt; }
+
+    /** Stacks the serializer actually stores: null and air slots are skipped. */
+    private static int countStacks(List<ItemStack> items) {
+        int n = 0;
+        for (ItemStack item : items) if (item != null && !item.getType().isAir()) n++;
+        return n;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package org.anonventions.globalPost.models;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.List;
+
+/**
+ * The decoded items of one mail, with an estimate of the heap they take
+ * for cache accounting. Decoded stacks (meta objects, UTF‑16 strings, maps)
+ * run to several times the uncompressed NBT they were read from.
+ */
+public record MailItems(List<ItemStack> items, int heapBytes) {
+
+    private static final int HEAP_PER_NBT_BYTE = 4;
+    private static final int HEAP_PER_STACK    = 256;
+
+    /** {@code items} decoded from {@code rawBytes} of uncompressed item data. */
+    public static MailItems decoded(List<ItemStack> items, int rawBytes) {
+        long estimate = (long) rawBytes * HEAP_PER_NBT_BYTE + (long) items.size() * HEAP_PER_STACK;
+        return new MailItems(items, (int) Math.min(Integer.MAX_VALUE, estimate));
+    }
+}
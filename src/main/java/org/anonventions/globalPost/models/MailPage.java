@@ -0,0 +1,15 @@
+package org.anonventions.globalPost.models;
+
+import java.util.List;
+
+/**
+ * One keyset page of mail headers, ordered by (sent_at, id).
+ * {@code next} is null on the last page.
+ */
+public record MailPage(List<Mail> mails, Cursor next) {
+
+    /** Seek position: sent_at exactly as the database returned it, plus the id tie‑breaker. */
+    public record Cursor(String sentAt, int id) {}
+
+    public boolean hasNext() { return next != null; }
+}
@@ -0,0 +1,6 @@
+package org.anonventions.globalPost.models;
+
+import java.util.UUID;
+
+/** A resolved mail recipient. */
+public record Recipient(UUID uuid, String name) {}
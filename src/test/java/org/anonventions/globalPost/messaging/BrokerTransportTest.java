@@ -0,0 +1,136 @@
+/*─────────────────────────────────────────────────────────────────────────────
+ *  org/anonventions/globalPost/messaging/BrokerTransportTest.java
+ *───────────────────────────────────────────────────────────────────────────*/
+package org.anonventions.globalPost.messaging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BrokerTransport against an {@link InProcessBroker} on a free local port:
+ * round trip, reconnect after the broker restarts, and -ERR replies.
+ */
+class BrokerTransportTest {
+
+    private static final String HOST   = "127.0.0.1";
+    private static final String PREFIX = "gp";
+    private static final Logger LOG    = Logger.getLogger(BrokerTransportTest.class.getName());
+
+    private final List<AutoCloseable> open = new ArrayList<>();
+
+    @AfterEach
+    void closeAll() throws Exception {
+        for (int i = open.size() - 1; i >= 0; i--) open.get(i).close();
+    }
+
+    @Test
+    void deliversToTargetAndBroadcast() throws Exception {
+        InProcessBroker broker = broker(0, "");
+        BlockingQueue<byte[]> atA = new LinkedBlockingQueue<>(), atB = new LinkedBlockingQueue<>();
+        BrokerTransport a = transport(broker.getPort(), "", "a", atA);
+        transport(broker.getPort(), "", "b", atB);
+        awaitTrue(() -> broker.subscribers(PREFIX + ":b") == 1 && broker.subscribers(PREFIX + ":ALL") == 2);
+
+        a.publish("b", bytes("to b"));
+        assertEquals("to b", text(atB.poll(5, TimeUnit.SECONDS)));
+
+        a.publish(PluginMessageHandler.BROADCAST, bytes("to all"));
+        assertEquals("to all", text(atA.poll(5, TimeUnit.SECONDS)));
+        assertEquals("to all", text(atB.poll(5, TimeUnit.SECONDS)));
+        assertNull(atA.poll(200, TimeUnit.MILLISECONDS), "a must not receive messages for b");
+    }
+
+    @Test
+    void reconnectsAfterBrokerRestart() throws Exception {
+        InProcessBroker first = broker(0, "");
+        int port = first.getPort();
+        BlockingQueue<byte[]> inbound = new LinkedBlockingQueue<>();
+        BrokerTransport t = transport(port, "", "a", inbound);
+        awaitTrue(() -> first.subscribers(PREFIX + ":a") == 1);
+
+        first.close();
+        InProcessBroker second = broker(port, "");
+        awaitTrue(() -> second.subscribers(PREFIX + ":a") == 1);
+
+        t.publish("a", bytes("after restart"));
+        assertEquals("after restart", text(inbound.poll(10, TimeUnit.SECONDS)));
+        assertTrue(t.isRunning());
+    }
+
+    @Test
+    void rejectedPublishIsDroppedNotResent() throws Exception {
+        InProcessBroker broker = broker(0, "");
+        BlockingQueue<byte[]> inbound = new LinkedBlockingQueue<>();
+        BrokerTransport t = transport(broker.getPort(), "", "a", inbound);
+        awaitTrue(() -> broker.subscribers(PREFIX + ":a") == 1);
+
+        broker.rejectPublishes("NOPERM this user has no permissions to access the channel");
+        t.publish("a", bytes("rejected"));
+        awaitTrue(() -> t.pending() == 0);
+        Thread.sleep(300); // let the reply come back before publishes are accepted again
+        broker.rejectPublishes(null);
+
+        t.publish("a", bytes("accepted"));
+        assertEquals("accepted", text(inbound.poll(5, TimeUnit.SECONDS)));
+        assertNull(inbound.poll(300, TimeUnit.MILLISECONDS), "a rejected publish must not be resent");
+        assertTrue(t.isRunning());
+    }
+
+    @Test
+    void wrongPasswordStopsTheTransport() throws Exception {
+        InProcessBroker broker = broker(0, "secret");
+        BrokerTransport t = transport(broker.getPort(), "wrong", "a", new LinkedBlockingQueue<>());
+
+        awaitTrue(() -> !t.isRunning());
+        assertEquals(0, broker.subscribers(PREFIX + ":a"));
+    }
+
+    @Test
+    void rightPasswordIsAccepted() throws Exception {
+        InProcessBroker broker = broker(0, "secret");
+        BlockingQueue<byte[]> inbound = new LinkedBlockingQueue<>();
+        BrokerTransport t = transport(broker.getPort(), "secret", "a", inbound);
+        awaitTrue(() -> broker.subscribers(PREFIX + ":a") == 1);
+
+        t.publish("a", bytes("hello"));
+        assertEquals("hello", text(inbound.poll(5, TimeUnit.SECONDS)));
+    }
+
+    /*------------------------------------------------------------------------*/
+    private InProcessBroker broker(int port, String password) throws IOException {
+        InProcessBroker broker = new InProcessBroker(HOST, port, password);
+        open.add(broker);
+        return broker;
+    }
+
+    private BrokerTransport transport(int port, String password, String server, BlockingQueue<byte[]> inbound) {
+        BrokerTransport t = new BrokerTransport(LOG, HOST, port, password, PREFIX, server, 1000, false);
+        t.start(inbound::add);
+        open.add(t::close);
+        return t;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("condition not met within 10s");
+            Thread.sleep(20);
+        }
+    }
+
+    private static byte[] bytes(String s) { return s.getBytes(StandardCharsets.UTF_8); }
+
+    private static String text(byte[] b)  { return b == null ? null : new String(b, StandardCharsets.UTF_8); }
+}